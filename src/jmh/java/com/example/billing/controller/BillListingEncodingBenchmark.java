@@ -0,0 +1,90 @@
+package com.example.billing.controller;
+
+import com.example.billing.dto.BillListing;
+import com.example.billing.dto.BillView;
+import com.example.billing.dto.CursorPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size and encoding time of one full bill page (500 rows) in the shapes and encodings
+ * the listing endpoints offer. "current" is the CursorPage<BillView> JSON the endpoints
+ * returned before BillListing; customers=1 is a customer's own listing, 500 an admin page
+ * where every row belongs to someone else. Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class BillListingEncodingBenchmark {
+
+    private static final int ROWS = CursorPage.MAX_LIMIT;
+
+    @Param({"current", "full", "normalized", "sparse"})
+    public String shape;
+
+    @Param({"json", "cbor"})
+    public String encoding;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"1", "500"})
+    public int customers;
+
+    private ObjectMapper mapper;
+    private Object body;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(128 * 1024);
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (encoding.equals("cbor")) builder.factory(new CBORFactory());
+        mapper = builder.build();
+
+        List<BillView> rows = new ArrayList<>(ROWS);
+        LocalDate date = LocalDate.of(2024, 12, 5);
+        for (int i = 0; i < ROWS; i++) {
+            long customerId = 1 + i % customers;
+            rows.add(new BillView(100_000L - i, 150.0 + (i * 37) % 500 + 0.25, 600.0 + (i * 53) % 3000 + 0.5,
+                    date.minusMonths(i / customers), customerId, "Customer " + customerId));
+        }
+        CursorPage<BillView> page = new CursorPage<>(rows, "2024-01-05:99500", ROWS);
+        body = switch (shape) {
+            case "current"    -> page;
+            case "full"       -> BillListing.of(page, null, null);
+            case "normalized" -> BillListing.of(page, "normalized", null);
+            default           -> BillListing.of(page, "normalized", "id,amount,billDate");
+        };
+        System.out.printf("%n[payload] shape=%s encoding=%s gzip=%s customers=%d: %d bytes%n",
+                shape, encoding, gzip, customers, encode());
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                mapper.writeValue(out, body);
+            }
+        } else {
+            mapper.writeValue(buffer, body);
+        }
+        return buffer.size();
+    }
+}
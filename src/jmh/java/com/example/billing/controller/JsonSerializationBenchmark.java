@@ -0,0 +1,77 @@
+package com.example.billing.controller;
+
+import com.example.billing.dto.BillView;
+import com.example.billing.model.Bill;
+import com.example.billing.model.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing bill and customer listings to the response body, with the same
+ * ObjectMapper configuration Spring MVC uses. Bill entities embed their customer;
+ * BillView is the flat projection the listing endpoints return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<Bill> bills;
+    private List<BillView> billViews;
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        bills = new ArrayList<>(size);
+        billViews = new ArrayList<>(size);
+        customers = new ArrayList<>(size);
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < size; i++) {
+            Customer c = new Customer("Customer " + i, "customer" + i + "@example.com", i + " Main Street", null);
+            c.setId((long) i + 1);
+            customers.add(c);
+
+            Bill b = new Bill();
+            b.setId((long) i + 1);
+            b.setUnitsConsumed(150.0 + i % 500);
+            b.setAmount(600.0 + i % 3000);
+            b.setBillDate(date.plusDays(i % 365));
+            b.setTariffVersion(1L);
+            b.setCustomer(c);
+            bills.add(b);
+
+            billViews.add(new BillView(b.getId(), b.getUnitsConsumed(), b.getAmount(), b.getBillDate(),
+                    c.getId(), c.getName()));
+        }
+    }
+
+    @Benchmark
+    public void billEntities() throws Exception {
+        mapper.writeValue(OutputStream.nullOutputStream(), bills);
+    }
+
+    @Benchmark
+    public void billViews() throws Exception {
+        mapper.writeValue(OutputStream.nullOutputStream(), billViews);
+    }
+
+    @Benchmark
+    public void customers() throws Exception {
+        mapper.writeValue(OutputStream.nullOutputStream(), customers);
+    }
+}
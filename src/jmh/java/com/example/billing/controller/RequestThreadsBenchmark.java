@@ -0,0 +1,116 @@
+package com.example.billing.controller;
+
+import com.example.billing.ElectricityBillingApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform vs virtual request threads on the real server: Tomcat, the filters (including
+ * the connection-pool-aware concurrency limit), services and H2 in MySQL mode with the
+ * loadtest seed data. 256 clients, more than Tomcat's 200 platform worker threads and
+ * far more than the 10 pooled connections. The server boots once per fork, i.e. once
+ * per mode; "virtual" needs a Java 21 runtime (run Maven on a JDK 21).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(256)
+@Fork(1)
+public class RequestThreadsBenchmark {
+
+    private static final int CUSTOMERS = 2000;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private String url;
+
+    /** One client with its own connection and session, logged in as a random customer. */
+    @State(Scope.Thread)
+    public static class Client {
+        HttpClient http;
+        String base;
+        String username;
+
+        @Setup
+        public void login(RequestThreadsBenchmark server) throws Exception {
+            base = server.url;
+            http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .cookieHandler(new CookieManager())
+                    .build();
+            username = "lt-customer-" + new SplittableRandom(System.identityHashCode(this)).nextInt(1, CUSTOMERS + 1);
+            post("/api/login", "{\"username\":\"" + username + "\",\"password\":\"loadtest\"}");
+        }
+
+        int get(String path) throws Exception {
+            return check(http.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray()));
+        }
+
+        int post(String path, String json) throws Exception {
+            return check(http.send(HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray()));
+        }
+
+        private static int check(HttpResponse<byte[]> res) {
+            if (res.statusCode() >= 400) throw new IllegalStateException(res.uri() + " returned " + res.statusCode());
+            return res.body().length;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        boolean virtual = threads.equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need a Java 21 runtime");
+        }
+        // seeding runs on ApplicationReadyEvent, so it is done when run() returns; the
+        // backlog must hold every client's first connect, or logins are reset in a burst
+        context = new SpringApplicationBuilder(ElectricityBillingApplication.class)
+                .profiles("loadtest")
+                .run("--server.port=0",
+                     "--server.tomcat.accept-count=1024",
+                     "--spring.threads.virtual.enabled=" + virtual,
+                     "--billing.loadtest.customers=" + CUSTOMERS,
+                     "--billing.archive.enabled=false",
+                     "--logging.level.root=WARN",
+                     "--logging.level.com.example.billing=ERROR");
+        url = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int login(Client client) throws Exception {
+        return client.post("/api/login", "{\"username\":\"" + client.username + "\",\"password\":\"loadtest\"}");
+    }
+
+    @Benchmark
+    public int customerDashboard(Client client) throws Exception {
+        return client.get("/api/customer/dashboard");
+    }
+
+    @Benchmark
+    public int customerBills(Client client) throws Exception {
+        return client.get("/api/customer/bills?limit=50");
+    }
+}
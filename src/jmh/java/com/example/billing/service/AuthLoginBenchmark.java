@@ -0,0 +1,64 @@
+package com.example.billing.service;
+
+import com.example.billing.ElectricityBillingApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuthService.login end to end (transaction, user lookup by username, session population)
+ * against an in-memory H2 database in MySQL mode. The context boots once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthLoginBenchmark {
+
+    private static final int USERS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final MockHttpSession session = new MockHttpSession();
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ElectricityBillingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                     "--spring.datasource.username=sa",
+                     "--spring.datasource.password=",
+                     "--spring.datasource.driver-class-name=org.h2.Driver",
+                     "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                     "--spring.jpa.hibernate.ddl-auto=none",
+                     "--spring.jpa.show-sql=false",
+                     "--logging.level.root=WARN");
+        authService = context.getBean(AuthService.class);
+        for (int i = 0; i < USERS; i++) {
+            authService.register("user" + i, "secret", "ADMIN", null, null, null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> login(Caller caller) {
+        int i = caller.next++ % USERS;
+        return authService.login("user" + i, "secret", caller.session);
+    }
+}
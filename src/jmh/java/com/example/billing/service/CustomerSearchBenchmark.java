@@ -0,0 +1,54 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.CustomerProfile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups against 1M synthetic customers: a short single prefix, a selective
+ * name, a two-term query narrowed by the rarer term, an id prefix and a miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class CustomerSearchBenchmark {
+
+    private static final String[] FIRST = {"Aarav", "Priya", "Rahul", "Ananya", "Vikram", "Sneha", "Arjun",
+            "Kavya", "Rohan", "Divya", "Karthik", "Meera", "Siddharth", "Lakshmi", "Naveen", "Pooja"};
+    private static final String[] LAST = {"Sharma", "Reddy", "Iyer", "Patel", "Nair", "Gupta", "Rao",
+            "Menon", "Singh", "Das", "Kulkarni", "Joshi", "Mehta", "Pillai", "Verma", "Seera"};
+    private static final String[] STREET = {"MG Road", "Park Street", "Lake View", "Station Road",
+            "Gandhi Nagar", "Hill Colony", "Temple Street", "Nehru Marg"};
+
+    @Param("1000000")
+    public int customers;
+
+    @Param({"pr", "kulkarni", "meera pillai", "4242", "zzzz"})
+    public String query;
+
+    private CustomerSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new CustomerSearchIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= customers; id++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last  = LAST[random.nextInt(LAST.length)];
+            index.put(new CustomerProfile(id, first + " " + last,
+                    first.toLowerCase() + "." + last.toLowerCase() + id + "@mail.example",
+                    (1 + random.nextInt(400)) + " " + STREET[random.nextInt(STREET.length)] + ", Ward " + random.nextInt(200)));
+        }
+    }
+
+    @Benchmark
+    public List<CustomerProfile> search() {
+        return index.search(query, CustomerSearchIndex.DEFAULT_LIMIT);
+    }
+}
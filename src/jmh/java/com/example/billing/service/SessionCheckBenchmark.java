@@ -0,0 +1,92 @@
+package com.example.billing.service;
+
+import com.example.billing.model.Role;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authorization cost: SessionHelper.requireRole on a servlet session, and the
+ * token-mode path (signature check, claims parse, TokenSession, requireRole) that replaces it.
+ * The *OnNewThread pair runs each check on a thread of its own, as requests do with virtual
+ * threads ("virtual" needs a Java 21 runtime); their difference is the check's cost there.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionCheckBenchmark {
+
+    private MockHttpSession servletSession;
+    private SessionTokens tokens;
+    private String token;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        servletSession = new MockHttpSession();
+        servletSession.setAttribute(SessionHelper.SESSION_USER_ID,  42L);
+        servletSession.setAttribute(SessionHelper.SESSION_USERNAME, "admin");
+        servletSession.setAttribute(SessionHelper.SESSION_ROLE,     Role.ADMIN.name());
+
+        tokens = new SessionTokens("benchmark-secret-benchmark-secret-0123", Duration.ofMinutes(30), Duration.ofHours(12));
+        token = tokens.issue(42L, "admin", Role.ADMIN.name());
+        response = new MockHttpServletResponse();
+    }
+
+    /** Starts one thread per check, platform or virtual. */
+    @State(Scope.Benchmark)
+    public static class NewThreads {
+
+        @Param({"platform", "virtual"})
+        public String threads;
+
+        private ThreadFactory factory = Thread::new;
+
+        @Setup
+        public void setUp() {
+            if (threads.equals("virtual")) {
+                if (Runtime.version().feature() < 21) {
+                    throw new IllegalStateException("Virtual threads need a Java 21 runtime");
+                }
+                factory = new VirtualThreadTaskExecutor("session-check-").getVirtualThreadFactory();
+            }
+        }
+
+        void runAndJoin(Runnable task) throws InterruptedException {
+            Thread thread = factory.newThread(task);
+            thread.start();
+            thread.join();
+        }
+    }
+
+    @Benchmark
+    public Long servletSessionRequireRole() {
+        return SessionHelper.requireRole(servletSession, Role.ADMIN);
+    }
+
+    @Benchmark
+    public Long tokenVerifyAndRequireRole() {
+        SessionTokens.Claims claims = tokens.verify(token);
+        return SessionHelper.requireRole(new TokenSession(tokens, claims, response, null, false), Role.ADMIN);
+    }
+
+    @Benchmark
+    public void emptyTaskOnNewThread(NewThreads threads) throws InterruptedException {
+        threads.runAndJoin(() -> { });
+    }
+
+    @Benchmark
+    public Long tokenVerifyOnNewThread(NewThreads threads) throws InterruptedException {
+        Long[] userId = new Long[1];
+        threads.runAndJoin(() -> userId[0] = tokenVerifyAndRequireRole());
+        return userId[0];
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.billing.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of pricing one reading with the compiled tariff, against the original
+ * double-based if/else slab calculation it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TariffEvaluatorBenchmark {
+
+    private static final int READINGS = 1024;
+
+    private CompiledTariff tariff;
+    private long[] centiUnits;
+    private double[] units;
+
+    @Setup
+    public void setUp() {
+        tariff = new CompiledTariff(1, new long[] {100_00, 300_00, Long.MAX_VALUE}, new long[] {350, 500, 700});
+        SplittableRandom random = new SplittableRandom(42);
+        centiUnits = new long[READINGS];
+        units = new double[READINGS];
+        for (int i = 0; i < READINGS; i++) {
+            units[i] = random.nextInt(1, 800_00) / 100.0;
+            centiUnits[i] = CompiledTariff.toCentiUnits(units[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS)
+    public void compiledFixedPoint(Blackhole bh) {
+        for (long u : centiUnits) bh.consume(tariff.amountPaise(u));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS)
+    public void legacyDouble(Blackhole bh) {
+        for (double u : units) bh.consume(legacyAmount(u));
+    }
+
+    private static double legacyAmount(double units) {
+        if (units <= 100) {
+            return units * 3.50;
+        } else if (units <= 300) {
+            return (100 * 3.50) + ((units - 100) * 5.00);
+        } else {
+            return (100 * 3.50) + (200 * 5.00) + ((units - 300) * 7.00);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.billing.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Closed-loop load driver for a server started with --spring.profiles.active=loadtest.
+ *
+ * Each virtual user repeatedly replays one scripted session over its own cookie jar:
+ *   customer: login -> dashboard -> 0..2 further bill pages (following nextCursor)
+ *   admin:    login -> stats -> bill listing for a random customer -> 1..3 new bills
+ * Samples taken during the warm-up are discarded. Prints count, errors, throughput and
+ * p50/p90/p99/max latency per endpoint.
+ *
+ * Options (all optional): --url=http://localhost:8080 --users=32 --duration=60
+ *                         --warmup=10 --admin-share=0.1 --seed=1
+ */
+public class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String url;
+    private final double adminShare;
+    private final long customers;
+
+    private LoadDriver(String url, double adminShare, long customers) {
+        this.url = url;
+        this.adminShare = adminShare;
+        this.customers = customers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            int eq = a.indexOf('=');
+            if (a.startsWith("--") && eq > 2) opts.put(a.substring(2, eq), a.substring(eq + 1));
+        }
+        String url       = opts.getOrDefault("url", "http://localhost:8080");
+        int users        = Integer.parseInt(opts.getOrDefault("users", "32"));
+        int duration     = Integer.parseInt(opts.getOrDefault("duration", "60"));
+        int warmup       = Integer.parseInt(opts.getOrDefault("warmup", "10"));
+        double adminShare = Double.parseDouble(opts.getOrDefault("admin-share", "0.1"));
+        long seed        = Long.parseLong(opts.getOrDefault("seed", "1"));
+
+        // The generator creates customers 1..N, so the admin's customer count bounds the id space.
+        // Seeding runs after the server starts listening; wait for it to finish.
+        VirtualUser probe = new VirtualUser(url, new SplittableRandom(seed), Long.MAX_VALUE);
+        long customers = 0;
+        for (int attempt = 0; customers == 0 && attempt < 120; attempt++) {
+            try {
+                probe.call("POST /api/login", "POST", "/api/login", login("lt-admin"));
+                customers = MAPPER.readTree(probe.call("GET /api/admin/stats", "GET", "/api/admin/stats", null))
+                        .path("customerCount").asLong();
+            } catch (Exception e) {
+                // not seeded yet
+            }
+            if (customers == 0) Thread.sleep(1000);
+        }
+        if (customers == 0) throw new IllegalStateException("No customers; is the server running the loadtest profile?");
+        LoadDriver driver = new LoadDriver(url, adminShare, customers);
+
+        System.out.printf("Driving %s with %d users for %ds (+%ds warm-up), %d customers%n",
+                url, users, duration, warmup, customers);
+        long recordFrom = System.nanoTime() + warmup * 1_000_000_000L;
+        long deadline = recordFrom + duration * 1_000_000_000L;
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<VirtualUser> vus = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            VirtualUser vu = new VirtualUser(url, seeds.split(), recordFrom);
+            vus.add(vu);
+            Thread t = new Thread(() -> driver.run(vu, deadline), "vu-" + i);
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+
+        Map<String, Samples> merged = new TreeMap<>();
+        long failedSessions = 0;
+        for (VirtualUser vu : vus) {
+            vu.samples.forEach((k, v) -> merged.computeIfAbsent(k, x -> new Samples()).addAll(v));
+            failedSessions += vu.failedSessions;
+        }
+        report(merged, duration);
+        System.out.printf("failed sessions: %d%n", failedSessions);
+    }
+
+    private void run(VirtualUser vu, long deadline) {
+        while (System.nanoTime() < deadline) {
+            try {
+                if (vu.random.nextDouble() < adminShare) adminSession(vu); else customerSession(vu);
+            } catch (Exception e) {
+                vu.failedSessions++;
+            }
+        }
+    }
+
+    private void customerSession(VirtualUser vu) throws Exception {
+        long customer = vu.random.nextLong(1, customers + 1);
+        vu.call("POST /api/login", "POST", "/api/login", login("lt-customer-" + customer));
+        JsonNode page = MAPPER.readTree(vu.call("GET /api/customer/dashboard", "GET", "/api/customer/dashboard", null))
+                .path("bills");
+        int more = vu.random.nextInt(3);
+        for (int i = 0; i < more && page.hasNonNull("nextCursor"); i++) {
+            String path = "/api/customer/bills?cursor=" + page.get("nextCursor").asText();
+            page = MAPPER.readTree(vu.call("GET /api/customer/bills", "GET", path, null));
+        }
+    }
+
+    private void adminSession(VirtualUser vu) throws Exception {
+        vu.call("POST /api/login", "POST", "/api/login", login("lt-admin"));
+        vu.call("GET /api/admin/stats", "GET", "/api/admin/stats", null);
+        long customer = vu.random.nextLong(1, customers + 1);
+        vu.call("GET /api/admin/bills", "GET", "/api/admin/bills?customerId=" + customer, null);
+        int bills = vu.random.nextInt(1, 4);
+        for (int i = 0; i < bills; i++) {
+            long target = vu.random.nextLong(1, customers + 1);
+            double units = Math.round(vu.random.nextDouble(20, 600) * 100) / 100.0;
+            vu.call("POST /api/admin/bills", "POST", "/api/admin/bills",
+                    "{\"customerId\":" + target + ",\"unitsConsumed\":" + units + "}");
+        }
+    }
+
+    private static String login(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + LoadTestDataGenerator.PASSWORD + "\"}";
+    }
+
+    private static void report(Map<String, Samples> merged, int seconds) {
+        System.out.printf("%n%-28s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        long total = 0, errors = 0;
+        for (Map.Entry<String, Samples> e : merged.entrySet()) {
+            Samples s = e.getValue();
+            long[] sorted = s.sorted();
+            total += sorted.length;
+            errors += s.errors;
+            System.out.printf("%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", e.getKey(), sorted.length, s.errors,
+                    sorted.length / (double) seconds, pct(sorted, 50), pct(sorted, 90), pct(sorted, 99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+        System.out.printf("%-28s %9d %7d %9.1f%n", "total", total, errors, total / (double) seconds);
+    }
+
+    private static double pct(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, idx)] / 1e6;
+    }
+
+    /** Latencies in nanoseconds for one endpoint; owned by a single thread until merged. */
+    private static final class Samples {
+        long[] values = new long[1024];
+        int size;
+        long errors;
+
+        void add(long nanos, boolean error) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = nanos;
+            if (error) errors++;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) add(other.values[i], false);
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    /** One simulated user: its own cookie jar, random stream and samples. */
+    private static final class VirtualUser {
+        final String url;
+        final SplittableRandom random;
+        final long recordFrom;
+        final HttpClient client;
+        final Map<String, Samples> samples = new HashMap<>();
+        long failedSessions;
+
+        VirtualUser(String url, SplittableRandom random, long recordFrom) {
+            this.url = url;
+            this.random = random;
+            this.recordFrom = recordFrom;
+            this.client = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+        }
+
+        String call(String endpoint, String method, String path, String json) throws Exception {
+            HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(url + path)).timeout(Duration.ofSeconds(30));
+            if (json != null) {
+                b.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(json));
+            } else {
+                b.method(method, HttpRequest.BodyPublishers.noBody());
+            }
+            long start = System.nanoTime();
+            HttpResponse<String> res = client.send(b.build(), HttpResponse.BodyHandlers.ofString());
+            boolean error = res.statusCode() >= 400;
+            if (start >= recordFrom) {
+                samples.computeIfAbsent(endpoint, k -> new Samples()).add(System.nanoTime() - start, error);
+            }
+            if (error) throw new IllegalStateException(endpoint + " returned " + res.statusCode());
+            return res.body();
+        }
+    }
+}
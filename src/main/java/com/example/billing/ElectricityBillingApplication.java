@@ -2,8 +2,10 @@ package com.example.billing;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ElectricityBillingApplication {
     public static void main(String[] args) {
         SpringApplication.run(ElectricityBillingApplication.class, args);
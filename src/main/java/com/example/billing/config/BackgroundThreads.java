@@ -0,0 +1,36 @@
+package com.example.billing.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for the background jobs' executors. They follow spring.threads.virtual.enabled,
+ * the switch that also moves request handling and @Scheduled methods to virtual threads:
+ * virtual threads on a Java 21 runtime with the switch on, daemon platform threads
+ * otherwise. Pool sizes do not change, so neither does the jobs' database concurrency.
+ */
+@Component
+public class BackgroundThreads {
+
+    private final boolean virtual;
+
+    public BackgroundThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    /** Threads named name-1, name-2, ... (name-0, name-1, ... when virtual). */
+    public ThreadFactory factory(String name) {
+        if (virtual) return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
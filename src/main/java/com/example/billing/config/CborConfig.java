@@ -0,0 +1,21 @@
+package com.example.billing.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * CBOR (application/cbor) as an alternative response encoding, chosen by the Accept header.
+ * The mapper comes from Boot's builder, so CBOR bodies carry the same fields and ISO dates
+ * as the JSON ones; JSON stays the default.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.billing.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the /api requests in progress at a multiple of the connection pool size
+ * (billing.concurrency.per-connection, or billing.concurrency.max-requests when set).
+ * On virtual threads the container no longer bounds concurrency, and thousands of
+ * requests would otherwise queue inside the pool until its connection timeout. Requests
+ * over the cap wait in arrival order for up to billing.concurrency.max-wait, then get
+ * 503 with Retry-After. Event streams hold their permit only until the handler returns.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    /** Requests in progress per pooled connection; they also spend time outside the database. */
+    @Value("${billing.concurrency.per-connection:2}")
+    private int perConnection;
+
+    /** Overrides the derived limit when positive. */
+    @Value("${billing.concurrency.max-requests:0}")
+    private int maxRequests;
+
+    @Value("${billing.concurrency.max-wait:5s}")
+    private Duration maxWait;
+
+    private Semaphore permits;
+    private int limit;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        limit = maxRequests > 0 ? maxRequests : Math.max(1, connectionPoolSize * perConnection);
+        permits = new Semaphore(limit, true);
+        rejected = meterRegistry.counter("billing.concurrency.rejected");
+        Gauge.builder("billing.concurrency.in.flight", permits, p -> limit - p.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("billing.concurrency.waiting", permits, Semaphore::getQueueLength)
+                .register(meterRegistry);
+        Gauge.builder("billing.concurrency.limit", () -> limit).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            reject(response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Same body as GlobalExceptionHandler's errors. */
+    private void reject(HttpServletResponse response) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now().toString());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        body.put("message", "Server busy, retry shortly.");
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
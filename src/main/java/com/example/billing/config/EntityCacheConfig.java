@@ -0,0 +1,68 @@
+package com.example.billing.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache for User and Customer: one bounded Caffeine region per
+ * entity and per natural id (username, email), each expiring billing.cache.entity.ttl
+ * after it was written. Regions are created here rather than on demand, and Hibernate
+ * refuses to start if an entity names a region missing from this list.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    public static final String USERS              = "users";
+    public static final String USERS_BY_USERNAME  = "users-by-username";
+    public static final String CUSTOMERS          = "customers";
+    public static final String CUSTOMERS_BY_EMAIL = "customers-by-email";
+
+    public static final List<String> REGIONS = List.of(USERS, USERS_BY_USERNAME, CUSTOMERS, CUSTOMERS_BY_EMAIL);
+
+    @Bean(destroyMethod = "close")
+    CacheManager entityCacheManager(@Value("${billing.cache.entity.max-size:10000}") long maxSize,
+                                    @Value("${billing.cache.entity.ttl:10m}") Duration ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // a URI of its own, so a second context in the same JVM gets fresh regions
+        CacheManager manager = provider.getCacheManager(
+                URI.create("billing-entities-" + System.identityHashCode(this)), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+            config.setMaximumSize(OptionalLong.of(maxSize));
+            config.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            config.setStoreByValue(false);
+            config.setStatisticsEnabled(true);
+            manager.createCache(region, config);
+        }
+        return manager;
+    }
+
+    /** Entries in a region (Hibernate's own statistics cannot count JCache regions). */
+    public static long regionSize(CacheManager manager, String region) {
+        return manager.getCache(region).unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize();
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer entityCacheProperties(CacheManager entityCacheManager) {
+        return props -> {
+            props.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            props.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            props.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            props.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
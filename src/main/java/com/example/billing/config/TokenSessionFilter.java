@@ -0,0 +1,79 @@
+package com.example.billing.config;
+
+import com.example.billing.service.SessionTokens;
+import com.example.billing.service.TokenSession;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Stateless session mode (billing.session.mode=token). Verifies the token from the
+ * session cookie or an "Authorization: Bearer" header and replaces request.getSession()
+ * with a TokenSession built from its claims, so no servlet session is ever created and
+ * any node can serve any request. Cookies past half their lifetime are re-issued, up to
+ * billing.session.max-lifetime after the login.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.session.mode", havingValue = "token")
+public class TokenSessionFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private SessionTokens sessionTokens;
+
+    @Value("${billing.session.cookie-secure:false}")
+    private boolean secureCookie;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean fromCookie = false;
+        String token = bearerToken(request);
+        if (token == null) {
+            token = cookieToken(request);
+            fromCookie = token != null;
+        }
+        SessionTokens.Claims claims = sessionTokens.verify(token);
+        if (claims != null && fromCookie) {
+            TokenSession.refresh(sessionTokens, claims, response, secureCookie);
+        }
+        TokenSession session = new TokenSession(sessionTokens, claims, response,
+                request.getServletContext(), secureCookie);
+        chain.doFilter(new HttpServletRequestWrapper(request) {
+            @Override
+            public HttpSession getSession(boolean create) {
+                return claims != null || create ? session : null;
+            }
+
+            @Override
+            public HttpSession getSession() {
+                return session;
+            }
+        }, response);
+    }
+
+    private static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private static String cookieToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+        for (Cookie c : cookies) {
+            if (TokenSession.COOKIE_NAME.equals(c.getName()) && !c.getValue().isEmpty()) return c.getValue();
+        }
+        return null;
+    }
+}
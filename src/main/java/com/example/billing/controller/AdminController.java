@@ -1,14 +1,38 @@
 package com.example.billing.controller;
 
+import com.example.billing.dto.AnomalyView;
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillListing;
+import com.example.billing.dto.BillRequest;
+import com.example.billing.dto.ReadingsRequest;
+import com.example.billing.dto.CursorPage;
+import com.example.billing.dto.CustomerProfile;
 import com.example.billing.model.Bill;
 import com.example.billing.model.Customer;
+import com.example.billing.model.Tariff;
 import com.example.billing.service.AdminService;
+import com.example.billing.service.BillArchiveService;
+import com.example.billing.service.BillExportService;
+import com.example.billing.service.BillImportService;
+import com.example.billing.service.BillingRunService;
+import com.example.billing.service.ConsumptionStatsService;
+import com.example.billing.service.MetricsService;
+import com.example.billing.service.TariffService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +43,27 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private BillExportService billExportService;
+
+    @Autowired
+    private BillImportService billImportService;
+
+    @Autowired
+    private TariffService tariffService;
+
+    @Autowired
+    private BillingRunService billingRunService;
+
+    @Autowired
+    private BillArchiveService billArchiveService;
+
+    @Autowired
+    private ConsumptionStatsService consumptionStatsService;
+
     // ---- Customer Endpoints ----
 
     @PostMapping("/customers")
@@ -34,9 +79,27 @@ public class AdminController {
         return new ResponseEntity<>(customer, HttpStatus.CREATED);
     }
 
+    /**
+     * GET /api/admin/customers?cursor=&limit=
+     * Keyset-paginated in id order (default 50, max 500 per page).
+     */
     @GetMapping("/customers")
-    public ResponseEntity<List<Customer>> getAllCustomers(HttpSession session) {
-        return ResponseEntity.ok(adminService.getAllCustomers(session));
+    public ResponseEntity<CursorPage<Customer>> getAllCustomers(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                HttpSession session) {
+        return ResponseEntity.ok(adminService.getAllCustomers(session, cursor, limit));
+    }
+
+    /**
+     * GET /api/admin/customers/search?q=&limit=
+     * Typeahead: customers whose name, email, address or id starts with every term of q
+     * (default 10, max 50 results).
+     */
+    @GetMapping("/customers/search")
+    public ResponseEntity<List<CustomerProfile>> searchCustomers(@RequestParam(defaultValue = "") String q,
+                                                                 @RequestParam(required = false) Integer limit,
+                                                                 HttpSession session) {
+        return ResponseEntity.ok(adminService.searchCustomers(session, q, limit));
     }
 
     @DeleteMapping("/customers/{id}")
@@ -46,6 +109,22 @@ public class AdminController {
         return ResponseEntity.ok(Map.of("message", "Customer deleted successfully"));
     }
 
+    /**
+     * POST /api/admin/customers/bulk-delete
+     * Body: { "ids": [1, 2, 3] } (at most 1000). Returns the deleted count and the ids not found.
+     */
+    @PostMapping("/customers/bulk-delete")
+    public ResponseEntity<Map<String, Object>> deleteCustomers(@RequestBody Map<String, Object> body,
+                                                               HttpSession session) {
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (Object id : (List<?>) body.get("ids")) ids.add(Long.parseLong(id.toString()));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("ids must be an array of numeric customer ids.");
+        }
+        return ResponseEntity.ok(adminService.deleteCustomers(session, ids));
+    }
+
     // ---- Bill Endpoints ----
 
     @PostMapping("/bills")
@@ -63,8 +142,210 @@ public class AdminController {
         return new ResponseEntity<>(bill, HttpStatus.CREATED);
     }
 
+    /**
+     * POST /api/admin/bills/batch
+     * Body: [ { customerId, unitsConsumed }, ... ]
+     * Returns created/rejected counts plus one result per entry, in request order.
+     */
+    @PostMapping("/bills/batch")
+    public ResponseEntity<Map<String, Object>> generateBills(@RequestBody List<BillRequest> body,
+                                                             HttpSession session) {
+        return new ResponseEntity<>(adminService.generateBills(session, body), HttpStatus.CREATED);
+    }
+
+    /**
+     * POST /api/admin/bills/import
+     * Body: the raw file, Content-Type text/csv (customerId,unitsConsumed) or application/x-ndjson.
+     * The body is streamed, not buffered; returns the finished import job with per-line errors.
+     */
+    @PostMapping("/bills/import")
+    public ResponseEntity<Map<String, Object>> importBills(HttpServletRequest request,
+                                                           HttpSession session) throws IOException {
+        Map<String, Object> job = billImportService.importReadings(session, request.getContentType(),
+                                                                   request.getInputStream());
+        return new ResponseEntity<>(job, HttpStatus.CREATED);
+    }
+
+    /**
+     * GET /api/admin/bills/export?format=csv|ndjson&gzip=&customerId=&from=&to=
+     * Streams every matching bill (id order) as a download; memory use is independent of size.
+     */
+    @GetMapping("/bills/export")
+    public void exportBills(@RequestParam(required = false) String format,
+                            @RequestParam(defaultValue = "false") boolean gzip,
+                            @RequestParam(required = false) Long customerId,
+                            @RequestParam(required = false) LocalDate from,
+                            @RequestParam(required = false) LocalDate to,
+                            HttpServletResponse response,
+                            HttpSession session) throws IOException {
+        BillExportService.Export export = billExportService.prepare(session, format, gzip,
+                new BillFilter(customerId, from, to, null, null));
+        response.setContentType(export.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + export.filename() + "\"");
+        export.writeTo(response.getOutputStream());
+    }
+
+    /** GET /api/admin/imports — recent and running imports with progress counters. */
+    @GetMapping("/imports")
+    public ResponseEntity<List<Map<String, Object>>> listImports(HttpSession session) {
+        return ResponseEntity.ok(billImportService.listJobs(session));
+    }
+
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<Map<String, Object>> getImport(@PathVariable String id, HttpSession session) {
+        return ResponseEntity.ok(billImportService.getJob(session, id));
+    }
+
+    /**
+     * GET /api/admin/bills?customerId=&from=&to=&minAmount=&maxAmount=&cursor=&limit=&shape=&fields=
+     * Newest first, keyset-paginated (default 50, max 500 per page). Dates are yyyy-MM-dd.
+     * shape=normalized sends each customer's name once; fields= selects bill fields (see BillListing).
+     */
     @GetMapping("/bills")
-    public ResponseEntity<List<Bill>> getAllBills(HttpSession session) {
-        return ResponseEntity.ok(adminService.getAllBills(session));
+    public ResponseEntity<BillListing> getAllBills(@RequestParam(required = false) Long customerId,
+                                                   @RequestParam(required = false) LocalDate from,
+                                                   @RequestParam(required = false) LocalDate to,
+                                                   @RequestParam(required = false) Double minAmount,
+                                                   @RequestParam(required = false) Double maxAmount,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(required = false) String shape,
+                                                   @RequestParam(required = false) String fields,
+                                                   HttpSession session) {
+        BillFilter filter = new BillFilter(customerId, from, to, minAmount, maxAmount);
+        return ResponseEntity.ok(BillListing.of(adminService.getAllBills(session, filter, cursor, limit), shape, fields));
+    }
+
+    // ---- Billing Run Endpoints ----
+
+    /**
+     * POST /api/admin/readings
+     * Body: { period: "yyyy-MM", readings: [ { customerId, unitsConsumed }, ... ] }
+     * Stages meter readings for the period's billing run.
+     */
+    @PostMapping("/readings")
+    public ResponseEntity<Map<String, Object>> submitReadings(@RequestBody ReadingsRequest body,
+                                                              HttpSession session) {
+        return new ResponseEntity<>(billingRunService.submitReadings(session, body.period(), body.readings()),
+                                    HttpStatus.CREATED);
+    }
+
+    /**
+     * POST /api/admin/billing-runs
+     * Body: { period: "yyyy-MM" }
+     * Starts (or resumes) the billing run for the period; poll GET /billing-runs/{id} for progress.
+     * Concurrent starts for one period return the same run. Its bills reach the dashboard totals
+     * as finished partitions are merged, every billing.runs.merge-interval-ms.
+     */
+    @PostMapping("/billing-runs")
+    public ResponseEntity<Map<String, Object>> startBillingRun(@RequestBody Map<String, String> body,
+                                                               HttpSession session) {
+        return new ResponseEntity<>(billingRunService.startRun(session, body.get("period")), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/billing-runs")
+    public ResponseEntity<List<Map<String, Object>>> getBillingRuns(HttpSession session) {
+        return ResponseEntity.ok(billingRunService.getRuns(session));
+    }
+
+    @GetMapping("/billing-runs/{id}")
+    public ResponseEntity<Map<String, Object>> getBillingRun(@PathVariable Long id, HttpSession session) {
+        return ResponseEntity.ok(billingRunService.getRun(session, id));
+    }
+
+    // ---- Tariff Endpoints ----
+
+    @GetMapping("/tariffs")
+    public ResponseEntity<List<Tariff>> getTariffs(HttpSession session) {
+        return ResponseEntity.ok(tariffService.getTariffs(session));
+    }
+
+    /**
+     * POST /api/admin/tariffs
+     * Body: { effectiveFrom: "yyyy-MM-dd", slabs: [ { upToUnits, rate }, ..., { rate } ] }
+     * rate is rupees per unit (up to 2 decimals); the last slab has no upToUnits.
+     */
+    @PostMapping("/tariffs")
+    public ResponseEntity<Tariff> publishTariff(@RequestBody Map<String, Object> body,
+                                                HttpSession session) {
+        LocalDate effectiveFrom;
+        List<Long> upToUnits = new ArrayList<>();
+        List<Long> ratePaise = new ArrayList<>();
+        try {
+            effectiveFrom = LocalDate.parse(body.get("effectiveFrom").toString());
+            for (Object o : (List<?>) body.get("slabs")) {
+                Map<?, ?> slab = (Map<?, ?>) o;
+                Object upTo = slab.get("upToUnits");
+                upToUnits.add(upTo == null ? null : Long.parseLong(upTo.toString()));
+                ratePaise.add(new BigDecimal(slab.get("rate").toString()).movePointRight(2).longValueExact());
+            }
+        } catch (Exception e) {
+            throw new IllegalArgumentException("effectiveFrom (yyyy-MM-dd) and slabs [{upToUnits, rate}] are required; rates allow at most 2 decimals.");
+        }
+        Tariff tariff = tariffService.publish(session, effectiveFrom, upToUnits, ratePaise);
+        return new ResponseEntity<>(tariff, HttpStatus.CREATED);
+    }
+
+    // ---- Dashboard ----
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats(HttpSession session) {
+        return ResponseEntity.ok(adminService.getStats(session));
+    }
+
+    /** GET /api/admin/events — bills, customer changes and running totals (text/event-stream). */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(HttpSession session) {
+        return adminService.subscribeEvents(session);
+    }
+
+    /** GET /api/admin/outbox — notification events by status and the oldest undelivered one. */
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats(HttpSession session) {
+        return ResponseEntity.ok(adminService.getOutboxStats(session));
+    }
+
+    /** GET /api/admin/archive — archive watermark and the last archival pass. */
+    @GetMapping("/archive")
+    public ResponseEntity<Map<String, Object>> getArchiveStatus(HttpSession session) {
+        return ResponseEntity.ok(billArchiveService.getStatus(session));
+    }
+
+    /** POST /api/admin/archive/run — starts an archival pass in the background. */
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Object>> runArchive(HttpSession session) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(billArchiveService.runNow(session));
+    }
+
+    /** GET /api/admin/anomalies?cursor=&limit= — bills flagged against the customer's usual consumption, newest first. */
+    @GetMapping("/anomalies")
+    public ResponseEntity<CursorPage<AnomalyView>> getAnomalies(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                HttpSession session) {
+        return ResponseEntity.ok(consumptionStatsService.getAnomalies(session, cursor, limit));
+    }
+
+    /** GET /api/admin/anomalies/backfill — whether a rebuild is running and how the last one went. */
+    @GetMapping("/anomalies/backfill")
+    public ResponseEntity<Map<String, Object>> getBackfillStatus(HttpSession session) {
+        return ResponseEntity.ok(consumptionStatsService.getBackfillStatus(session));
+    }
+
+    /** POST /api/admin/anomalies/backfill — rebuilds consumption statistics and flags from all bills. */
+    @PostMapping("/anomalies/backfill")
+    public ResponseEntity<Map<String, Object>> startBackfill(HttpSession session) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(consumptionStatsService.startBackfill(session));
+    }
+
+    /** Hit/miss counters of the in-process caches. */
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Object>> getCacheStats(HttpSession session) {
+        return ResponseEntity.ok(adminService.getCacheStats(session));
+    }
+
+    /** GET /api/admin/metrics — Prometheus text exposition of all application meters. */
+    @GetMapping(value = "/metrics", produces = MetricsService.CONTENT_TYPE)
+    public ResponseEntity<String> getMetrics(HttpSession session) {
+        return ResponseEntity.ok(metricsService.scrape(session));
     }
 }
@@ -1,29 +1,111 @@
 package com.example.billing.controller;
 
-import com.example.billing.model.Bill;
-import com.example.billing.model.Customer;
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillListing;
+import com.example.billing.dto.CustomerProfile;
+import com.example.billing.dto.CustomerVersion;
 import com.example.billing.service.CustomerService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Map;
 
+/**
+ * Customer self-service. GETs are conditional: each response carries a strong ETag and
+ * Last-Modified derived from the customer's data version, and a matching If-None-Match /
+ * If-Modified-Since gets 304 before any profile, stats or bill query runs.
+ */
 @RestController
 @RequestMapping("/api/customer")
 public class CustomerController {
 
+    /** Browsers may store the response but must revalidate it on every use. */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private CustomerService customerService;
 
     @GetMapping("/profile")
-    public ResponseEntity<Customer> getProfile(HttpSession session) {
-        return ResponseEntity.ok(customerService.getProfile(session));
+    public ResponseEntity<CustomerProfile> getProfile(ServletWebRequest request, HttpSession session) {
+        if (checkVersion(request, session, "profile") == null) return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(customerService.getProfile(session));
+    }
+
+    /**
+     * PUT /api/customer/profile
+     * Body: { name?, email?, address? } — omitted fields are unchanged.
+     */
+    @PutMapping("/profile")
+    public ResponseEntity<CustomerProfile> updateProfile(@RequestBody Map<String, String> body, HttpSession session) {
+        return ResponseEntity.ok(customerService.updateProfile(session,
+                body.get("name"), body.get("email"), body.get("address")));
     }
 
+    /**
+     * GET /api/customer/bills?from=&to=&minAmount=&maxAmount=&cursor=&limit=&shape=&fields=
+     * Newest first, keyset-paginated (default 50, max 500 per page). shape/fields: see BillListing.
+     */
     @GetMapping("/bills")
-    public ResponseEntity<List<Bill>> getMyBills(HttpSession session) {
-        return ResponseEntity.ok(customerService.getMyBills(session));
+    public ResponseEntity<BillListing> getMyBills(@RequestParam(required = false) LocalDate from,
+                                                  @RequestParam(required = false) LocalDate to,
+                                                  @RequestParam(required = false) Double minAmount,
+                                                  @RequestParam(required = false) Double maxAmount,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String shape,
+                                                  @RequestParam(required = false) String fields,
+                                                  ServletWebRequest request,
+                                                  HttpSession session) {
+        if (checkVersion(request, session, "bills") == null) return null;
+        BillFilter filter = new BillFilter(null, from, to, minAmount, maxAmount);
+        return ResponseEntity.ok().cacheControl(REVALIDATE)
+                .body(BillListing.of(customerService.getMyBills(session, filter, cursor, limit), shape, fields));
+    }
+
+    /** Served from the summary row read for the validators; no further query. */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getMyStats(ServletWebRequest request, HttpSession session) {
+        CustomerVersion version = checkVersion(request, session, "stats");
+        if (version == null) return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(version.stats());
+    }
+
+    /** GET /api/customer/dashboard?limit= — profile, stats and first bills page in one call. */
+    @GetMapping("/dashboard")
+    public ResponseEntity<Map<String, Object>> getDashboard(@RequestParam(required = false) Integer limit,
+                                                            ServletWebRequest request,
+                                                            HttpSession session) {
+        CustomerVersion version = checkVersion(request, session, "dashboard");
+        if (version == null) return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(customerService.getDashboard(session, version, limit));
+    }
+
+    /** GET /api/customer/events — own new bills and running totals (text/event-stream). */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(HttpSession session) {
+        return customerService.subscribeEvents(session);
+    }
+
+    /**
+     * Null (and 304 already set) when the client's copy is current; otherwise adds the
+     * validators and returns the version they came from. JSON and CBOR bodies of the same
+     * URL get different ETags.
+     */
+    private CustomerVersion checkVersion(ServletWebRequest request, HttpSession session, String scope) {
+        CustomerVersion version = customerService.getVersion(session);
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE)) scope += ".cbor";
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        boolean notModified = request.checkNotModified(version.etag(scope, request.getRequest().getQueryString()),
+                version.lastModifiedMillis());
+        return notModified ? null : version;
     }
 }
@@ -0,0 +1,58 @@
+package com.example.billing.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * Read-only transactions of a client that wrote within billing.datasource.replica.max-lag
+ * stay on the primary (see ReadYourWritesFilter), so nobody reads a replica that has not
+ * caught up with their own change yet.
+ * <p>
+ * The lookup happens when a connection is taken, so this must sit behind a
+ * LazyConnectionDataSourceProxy: the transaction manager asks for its connection before
+ * the read-only flag of the new transaction is published.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final Counter writes, reads, pinnedReads;
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry registry) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        writes      = counter(registry, "primary");
+        reads       = counter(registry, "replica");
+        pinnedReads = counter(registry, "pinned");
+        afterPropertiesSet();
+    }
+
+    private static Counter counter(MeterRegistry registry, String route) {
+        return Counter.builder("billing.datasource.connections")
+                .description("Connections taken per route; pinned = read-only work kept on the primary after a write")
+                .tag("route", route)
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) ReadYourWritesFilter.wrote();
+            writes.increment();
+            return Route.PRIMARY;
+        }
+        if (ReadYourWritesFilter.pinnedToPrimary()) {
+            pinnedReads.increment();
+            return Route.PRIMARY;
+        }
+        reads.increment();
+        return Route.REPLICA;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.billing.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes across replica lag. When a request runs a read-write transaction the
+ * client gets a short-lived cookie holding "primary until" (now + max-lag); while it is
+ * valid, that client's read-only transactions go to the primary. The cookie carries the
+ * deadline itself, so it works on any node and in both session modes. Within the request
+ * that wrote, later reads are pinned as well.
+ */
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "BILLING_PRIMARY_UNTIL";
+
+    private static final ThreadLocal<State> current = new ThreadLocal<>();
+
+    private final Duration maxLag;
+    private final boolean secureCookie;
+
+    ReadYourWritesFilter(Duration maxLag, boolean secureCookie) {
+        this.maxLag = maxLag;
+        this.secureCookie = secureCookie;
+    }
+
+    private final class State {
+        final HttpServletResponse response;
+        long primaryUntil;
+        boolean cookieSent;
+
+        State(HttpServletResponse response, long primaryUntil) {
+            this.response = response;
+            this.primaryUntil = primaryUntil;
+        }
+
+        void wrote() {
+            primaryUntil = System.currentTimeMillis() + maxLag.toMillis();
+            if (cookieSent || response.isCommitted()) return;
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, Long.toString(primaryUntil))
+                    .httpOnly(true).secure(secureCookie).sameSite("Lax").path("/")
+                    .maxAge(Duration.ofSeconds(Math.max(1, (maxLag.toMillis() + 999) / 1000))).build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            cookieSent = true;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        current.set(new State(response, primaryUntil(request)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            current.remove();
+        }
+    }
+
+    /** True while the current request's client may not see its own last write on the replica. */
+    static boolean pinnedToPrimary() {
+        State state = current.get();
+        return state != null && state.primaryUntil > System.currentTimeMillis();
+    }
+
+    /** Called for every connection taken by a read-write transaction. No-op outside requests. */
+    static void wrote() {
+        State state = current.get();
+        if (state != null) state.wrote();
+    }
+
+    private long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return 0;
+        for (Cookie c : cookies) {
+            if (!COOKIE_NAME.equals(c.getName())) continue;
+            try {
+                // never trust a deadline further out than one lag window
+                return Math.min(Long.parseLong(c.getValue()), System.currentTimeMillis() + maxLag.toMillis());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.billing.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary/replica split, active when billing.datasource.replica.url is set. Replaces Boot's
+ * single pool with two (spring.datasource.* for the primary, billing.datasource.replica.*
+ * for the replica) and exposes a routing DataSource as the application DataSource, so JPA,
+ * JdbcTemplate and Flyway need no changes. Flyway and everything outside a read-only
+ * transaction use the primary.
+ */
+@Configuration
+@Conditional(ReplicaDataSourceConfig.ReplicaConfigured.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    HikariDataSource replicaDataSource(DataSourceProperties primary,
+                                       @Value("${billing.datasource.replica.url}") String url,
+                                       @Value("${billing.datasource.replica.username:}") String username,
+                                       @Value("${billing.datasource.replica.password:}") String password,
+                                       @Value("${billing.datasource.replica.maximum-pool-size:10}") int maxPoolSize) {
+        HikariDataSource ds = DataSourceBuilder.create().type(HikariDataSource.class).url(url)
+                .username(username.isEmpty() ? primary.determineUsername() : username)
+                .password(username.isEmpty() ? primary.determinePassword() : password)
+                .build();
+        ds.setPoolName("replica");
+        ds.setMaximumPoolSize(maxPoolSize);
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    /** The pools are instrumented individually (MetricsConfig); this wrapper is not. */
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          MeterRegistry registry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, registry));
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(@Value("${billing.datasource.replica.max-lag:2s}") Duration maxLag,
+                                              @Value("${billing.session.cookie-secure:false}") boolean secureCookie) {
+        return new ReadYourWritesFilter(maxLag, secureCookie);
+    }
+
+    /** billing.datasource.replica.url is set and not blank. */
+    static class ReplicaConfigured implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return StringUtils.hasText(context.getEnvironment().getProperty("billing.datasource.replica.url"));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.billing.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A flagged bill: its units, the customer's baseline when it was generated, and the
+ * deviation in standard deviations (negative for a drop).
+ */
+public record AnomalyView(Long billId, Long customerId, String customerName, LocalDate billDate,
+                          Double unitsConsumed, Double expectedUnits, Double stdDev, Double score) {
+}
@@ -0,0 +1,20 @@
+package com.example.billing.dto;
+
+/**
+ * Outcome of one batch entry, reported at the same index as the request.
+ * billId and amount are set for CREATED rows; error is set for REJECTED rows.
+ */
+public record BillBatchResult(int index, Long customerId, String status,
+                              Long billId, Double amount, String error) {
+
+    public static final String CREATED  = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    public static BillBatchResult created(int index, Long customerId, Long billId, double amount) {
+        return new BillBatchResult(index, customerId, CREATED, billId, amount, null);
+    }
+
+    public static BillBatchResult rejected(int index, Long customerId, String error) {
+        return new BillBatchResult(index, customerId, REJECTED, null, null, error);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.billing.dto;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset position in the (billDate desc, id desc) bill ordering.
+ * Encoded on the wire as "yyyy-MM-dd:id".
+ */
+public record BillCursor(LocalDate billDate, Long id) {
+
+    public static BillCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        int sep = cursor.indexOf(':');
+        try {
+            return new BillCursor(LocalDate.parse(cursor.substring(0, sep)),
+                                  Long.parseLong(cursor.substring(sep + 1)));
+        } catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return billDate + ":" + id;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.billing.dto;
+
+import java.time.LocalDate;
+
+/** Optional bill listing filters; null fields are ignored. Date bounds are inclusive. */
+public record BillFilter(Long customerId, LocalDate from, LocalDate to,
+                         Double minAmount, Double maxAmount) {
+
+    public BillFilter {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (minAmount != null && maxAmount != null && minAmount > maxAmount) {
+            throw new IllegalArgumentException("minAmount must not exceed maxAmount");
+        }
+    }
+
+    public static BillFilter forCustomerOnly(Long id) {
+        return new BillFilter(id, null, null, null, null);
+    }
+
+    public BillFilter forCustomer(Long id) {
+        return new BillFilter(id, from, to, minAmount, maxAmount);
+    }
+}
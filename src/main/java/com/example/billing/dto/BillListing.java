@@ -0,0 +1,127 @@
+package com.example.billing.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A page of bills as sent to the client, in one of two shapes:
+ * <ul>
+ *   <li>full (default): { items: [BillView...], nextCursor, limit }, as CursorPage;</li>
+ *   <li>normalized: items carry only customerId, and the names are sent once in
+ *       { customers: { "id": { name } } }.</li>
+ * </ul>
+ * fields= keeps only the listed bill fields (id, unitsConsumed, amount, billDate,
+ * customerId, customerName). Written by hand, so the output is the same for JSON and CBOR
+ * and no reflection runs per row.
+ */
+@JsonSerialize(using = BillListing.Serializer.class)
+public record BillListing(CursorPage<BillView> page, boolean normalized, Set<Field> fields) {
+
+    public enum Field {
+        ID("id"), UNITS_CONSUMED("unitsConsumed"), AMOUNT("amount"), BILL_DATE("billDate"),
+        CUSTOMER_ID("customerId"), CUSTOMER_NAME("customerName");
+
+        private final String json;
+
+        Field(String json) {
+            this.json = json;
+        }
+
+        static Field fromJson(String name) {
+            for (Field f : values()) {
+                if (f.json.equals(name)) return f;
+            }
+            List<String> allowed = new ArrayList<>();
+            for (Field f : values()) allowed.add(f.json);
+            throw new IllegalArgumentException("Unknown bill field '" + name + "'. Allowed: " + String.join(", ", allowed));
+        }
+    }
+
+    /** shape: null/"full" or "normalized"; fields: null/blank for all, else comma-separated names. */
+    public static BillListing of(CursorPage<BillView> page, String shape, String fields) {
+        boolean normalized;
+        if (shape == null || shape.isBlank() || shape.equalsIgnoreCase("full")) {
+            normalized = false;
+        } else if (shape.equalsIgnoreCase("normalized")) {
+            normalized = true;
+        } else {
+            throw new IllegalArgumentException("shape must be 'full' or 'normalized'.");
+        }
+        return new BillListing(page, normalized, parseFields(fields));
+    }
+
+    private static Set<Field> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) return EnumSet.allOf(Field.class);
+        Set<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) continue;
+            selected.add(Field.fromJson(trimmed));
+        }
+        if (selected.isEmpty()) throw new IllegalArgumentException("fields must name at least one field.");
+        return selected;
+    }
+
+    static class Serializer extends JsonSerializer<BillListing> {
+
+        @Override
+        public void serialize(BillListing listing, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            Set<Field> f = listing.fields();
+            boolean inlineNames = !listing.normalized() && f.contains(Field.CUSTOMER_NAME);
+            Map<Long, String> customers = listing.normalized() && f.contains(Field.CUSTOMER_NAME)
+                    ? new LinkedHashMap<>() : null;
+            // the dictionary is keyed by customer id, so normalized items keep it
+            boolean customerIds = f.contains(Field.CUSTOMER_ID) || customers != null;
+
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("items");
+            for (BillView b : listing.page().items()) {
+                gen.writeStartObject();
+                if (f.contains(Field.ID))             writeNumber(gen, "id", b.id());
+                if (f.contains(Field.UNITS_CONSUMED)) writeNumber(gen, "unitsConsumed", b.unitsConsumed());
+                if (f.contains(Field.AMOUNT))         writeNumber(gen, "amount", b.amount());
+                if (f.contains(Field.BILL_DATE)) {
+                    if (b.billDate() == null) gen.writeNullField("billDate");
+                    else gen.writeStringField("billDate", b.billDate().toString());
+                }
+                if (customerIds)                      writeNumber(gen, "customerId", b.customerId());
+                if (inlineNames)                      gen.writeStringField("customerName", b.customerName());
+                if (customers != null && b.customerId() != null) customers.putIfAbsent(b.customerId(), b.customerName());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            if (customers != null) {
+                gen.writeObjectFieldStart("customers");
+                for (Map.Entry<Long, String> c : customers.entrySet()) {
+                    gen.writeObjectFieldStart(c.getKey().toString());
+                    gen.writeStringField("name", c.getValue());
+                    gen.writeEndObject();
+                }
+                gen.writeEndObject();
+            }
+            gen.writeStringField("nextCursor", listing.page().nextCursor());
+            gen.writeNumberField("limit", listing.page().limit());
+            gen.writeEndObject();
+        }
+
+        private static void writeNumber(JsonGenerator gen, String name, Long value) throws IOException {
+            if (value == null) gen.writeNullField(name);
+            else gen.writeNumberField(name, value.longValue());
+        }
+
+        private static void writeNumber(JsonGenerator gen, String name, Double value) throws IOException {
+            if (value == null) gen.writeNullField(name);
+            else gen.writeNumberField(name, value.doubleValue());
+        }
+    }
+}
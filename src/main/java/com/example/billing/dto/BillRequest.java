@@ -0,0 +1,5 @@
+package com.example.billing.dto;
+
+/** One entry of a batch bill request: { customerId, unitsConsumed }. */
+public record BillRequest(Long customerId, Double unitsConsumed) {
+}
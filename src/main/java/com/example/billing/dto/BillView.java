@@ -0,0 +1,11 @@
+package com.example.billing.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only bill row for listings: carries the customer's id and name instead of the
+ * whole Customer, and is built straight from the query so no entities are managed.
+ */
+public record BillView(Long id, Double unitsConsumed, Double amount, LocalDate billDate,
+                       Long customerId, String customerName) {
+}
@@ -0,0 +1,20 @@
+package com.example.billing.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * nextCursor is null on the last page; otherwise pass it back as ?cursor= to continue.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, int limit) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT     = 500;
+
+    /** Clamps a client-supplied page size into [1, MAX_LIMIT], defaulting when absent. */
+    public static int clampLimit(Integer requested) {
+        if (requested == null) return DEFAULT_LIMIT;
+        if (requested < 1) throw new IllegalArgumentException("limit must be at least 1");
+        return Math.min(requested, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.billing.dto;
+
+import com.example.billing.model.Customer;
+
+/** Immutable snapshot of a customer's profile, safe to cache and share across requests. */
+public record CustomerProfile(Long id, String name, String email, String address) {
+
+    public static CustomerProfile of(Customer c) {
+        return new CustomerProfile(c.getId(), c.getName(), c.getEmail(), c.getAddress());
+    }
+}
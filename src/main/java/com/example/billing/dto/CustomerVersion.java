@@ -0,0 +1,19 @@
+package com.example.billing.dto;
+
+import java.util.Map;
+
+/**
+ * Version of one customer's data, bumped on every bill or profile change. Used to build
+ * strong ETags and Last-Modified for the customer endpoints without loading the data.
+ * stats holds the stat card totals from the same summary row, so a response that
+ * needs them does not read it again.
+ */
+public record CustomerVersion(Long customerId, long dataVersion, long lastModifiedMillis, Map<String, Object> stats) {
+
+    /** scope names the representation (profile, bills, ...); query distinguishes filters and pages. */
+    public String etag(String scope, String query) {
+        String tag = customerId + "-" + dataVersion + "-" + lastModifiedMillis + "-" + scope;
+        if (query != null && !query.isEmpty()) tag += "-" + Integer.toHexString(query.hashCode());
+        return "\"" + tag + "\"";
+    }
+}
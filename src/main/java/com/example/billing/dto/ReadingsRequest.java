@@ -0,0 +1,7 @@
+package com.example.billing.dto;
+
+import java.util.List;
+
+/** Body of POST /api/admin/readings: one period's meter readings. */
+public record ReadingsRequest(String period, List<BillRequest> readings) {
+}
@@ -0,0 +1,126 @@
+package com.example.billing.loadtest;
+
+import com.example.billing.repository.BillBatchRepository;
+import com.example.billing.service.CompiledTariff;
+import com.example.billing.service.StatsService;
+import com.example.billing.service.TariffService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds the embedded database of the "loadtest" profile with a reproducible data set:
+ * one admin (lt-admin), N customers with linked users (lt-customer-1..N, password
+ * "loadtest") and one bill per customer for each of the last M months.
+ *
+ * Consumption is log-normal around ~180 units per month, scaled by a per-customer
+ * household factor and a seasonal factor (summer peak), so all three tariff slabs are hit.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataGenerator {
+
+    public static final String PASSWORD = "loadtest";
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataGenerator.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BillBatchRepository billBatchRepository;
+
+    @Autowired
+    private TariffService tariffService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${billing.loadtest.customers:10000}")
+    private int customers;
+
+    @Value("${billing.loadtest.months:12}")
+    private int months;
+
+    @Value("${billing.loadtest.seed:42}")
+    private long seed;
+
+    /** Rebuilds the summaries at the end, so ordering against StatsService.initialize does not matter. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void generate() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer existing = jdbcTemplate.queryForObject(
+                "select count(*) from users where username = 'lt-admin'", Integer.class);
+        if (existing != null && existing > 0) return;
+
+        long started = System.currentTimeMillis();
+        tx.executeWithoutResult(s -> seedUsersAndCustomers());
+        List<Long> ids = jdbcTemplate.queryForList("select id from customers order by id", Long.class);
+        long[] customerIds = ids.stream().mapToLong(Long::longValue).toArray();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] household = new double[customerIds.length];
+        for (int i = 0; i < household.length; i++) household[i] = Math.exp(0.4 * gaussian(random));
+
+        YearMonth current = YearMonth.now();
+        double[] units = new double[customerIds.length];
+        double[] amounts = new double[customerIds.length];
+        long bills = 0;
+        for (int m = months; m >= 1; m--) {
+            YearMonth period = current.minusMonths(m);
+            LocalDate billDate = period.atDay(5);
+            CompiledTariff tariff = tariffService.forDate(billDate);
+            double season = 1 + 0.3 * Math.cos((period.getMonthValue() - 6) * Math.PI / 6);
+            for (int i = 0; i < customerIds.length; i++) {
+                double u = 180 * household[i] * season * Math.exp(0.5 * gaussian(random));
+                units[i] = Math.max(1, Math.min(5000, Math.round(u * 100) / 100.0));
+                amounts[i] = tariff.amount(units[i]);
+            }
+            tx.executeWithoutResult(s -> billBatchRepository.insertAll(customerIds, units, amounts, billDate,
+                    tariff.version(), period.toString(), customerIds.length));
+            bills += customerIds.length;
+        }
+        tx.executeWithoutResult(s -> statsService.rebuild());
+        log.info("Load-test data: {} customers, {} bills in {} ms",
+                customerIds.length, bills, System.currentTimeMillis() - started);
+    }
+
+    private void seedUsersAndCustomers() {
+        jdbcTemplate.update("insert into users (username, password, role) values ('lt-admin', ?, 'ADMIN')", PASSWORD);
+        for (int from = 1; from <= customers; from += BillBatchRepository.BATCH_SIZE) {
+            int to = Math.min(customers, from + BillBatchRepository.BATCH_SIZE - 1);
+            List<Object[]> rows = new ArrayList<>(to - from + 1);
+            for (int i = from; i <= to; i++) rows.add(new Object[] {"lt-customer-" + i, PASSWORD});
+            jdbcTemplate.batchUpdate("insert into users (username, password, role) values (?, ?, 'CUSTOMER')", rows);
+        }
+        jdbcTemplate.update(
+                "insert into customers (name, email, address, user_id) " +
+                "select concat('Customer ', substring(u.username, 13)), concat(u.username, '@loadtest.example'), " +
+                "concat(substring(u.username, 13), ' Grid Road'), u.id " +
+                "from users u where u.username like 'lt-customer-%' order by u.id");
+    }
+
+    /** Standard normal via Box-Muller; SplittableRandom has no nextGaussian on Java 17. */
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
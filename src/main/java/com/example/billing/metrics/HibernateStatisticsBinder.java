@@ -0,0 +1,83 @@
+package com.example.billing.metrics;
+
+import com.example.billing.config.EntityCacheConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes Hibernate's Statistics (enabled with hibernate.generate_statistics) as
+ * hibernate.* meters, with per-region second-level cache counters tagged by region.
+ * Values are read at scrape time.
+ */
+@Component
+public class HibernateStatisticsBinder implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+
+    public HibernateStatisticsBinder(EntityManagerFactory entityManagerFactory, CacheManager entityCacheManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = entityCacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!stats.isStatisticsEnabled()) return;
+
+        counter(registry, stats, "hibernate.sessions.open",        Statistics::getSessionOpenCount);
+        counter(registry, stats, "hibernate.transactions",         Statistics::getTransactionCount);
+        counter(registry, stats, "hibernate.statements.prepared",  Statistics::getPrepareStatementCount);
+        counter(registry, stats, "hibernate.flushes",              Statistics::getFlushCount);
+        counter(registry, stats, "hibernate.connections.obtained", Statistics::getConnectCount);
+        counter(registry, stats, "hibernate.optimistic.failures",  Statistics::getOptimisticFailureCount);
+        counter(registry, stats, "hibernate.query.executions",     Statistics::getQueryExecutionCount);
+        counter(registry, stats, "hibernate.entities.loaded",      Statistics::getEntityLoadCount);
+        counter(registry, stats, "hibernate.entities.fetched",     Statistics::getEntityFetchCount);
+        counter(registry, stats, "hibernate.entities.inserted",    Statistics::getEntityInsertCount);
+        counter(registry, stats, "hibernate.entities.updated",     Statistics::getEntityUpdateCount);
+        counter(registry, stats, "hibernate.entities.deleted",     Statistics::getEntityDeleteCount);
+        counter(registry, stats, "hibernate.collections.loaded",   Statistics::getCollectionLoadCount);
+        counter(registry, stats, "hibernate.collections.fetched",  Statistics::getCollectionFetchCount);
+        counter(registry, stats, "hibernate.second.level.cache.hits",   Statistics::getSecondLevelCacheHitCount);
+        counter(registry, stats, "hibernate.second.level.cache.misses", Statistics::getSecondLevelCacheMissCount);
+        counter(registry, stats, "hibernate.second.level.cache.puts",   Statistics::getSecondLevelCachePutCount);
+        counter(registry, stats, "hibernate.natural.id.cache.hits",     Statistics::getNaturalIdCacheHitCount);
+        counter(registry, stats, "hibernate.natural.id.cache.misses",   Statistics::getNaturalIdCacheMissCount);
+        for (String region : stats.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics r = stats.getDomainDataRegionStatistics(region);
+            if (r == null) continue;
+            Tags tags = Tags.of("region", region);
+            FunctionCounter.builder("hibernate.cache.region.hits", r, CacheRegionStatistics::getHitCount)
+                    .tags(tags).register(registry);
+            FunctionCounter.builder("hibernate.cache.region.misses", r, CacheRegionStatistics::getMissCount)
+                    .tags(tags).register(registry);
+            FunctionCounter.builder("hibernate.cache.region.puts", r, CacheRegionStatistics::getPutCount)
+                    .tags(tags).register(registry);
+            if (cacheManager.getCache(region) != null) {
+                Gauge.builder("hibernate.cache.region.size", cacheManager,
+                                m -> EntityCacheConfig.regionSize(m, region))
+                        .tags(tags).register(registry);
+            }
+        }
+        Gauge.builder("hibernate.query.executions.max.millis", stats, Statistics::getQueryExecutionMaxTime)
+                .description("Slowest HQL/JPQL query since start")
+                .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, Statistics stats, String name,
+                                ToDoubleFunction<Statistics> f) {
+        FunctionCounter.builder(name, stats, f).register(registry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.billing.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/** Wires the SQL instrumentation into the DataSource and the MVC request lifecycle. */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final RequestSqlCountInterceptor requestSqlCountInterceptor;
+
+    public MetricsConfig(RequestSqlCountInterceptor requestSqlCountInterceptor) {
+        this.requestSqlCountInterceptor = requestSqlCountInterceptor;
+    }
+
+    /**
+     * Static so it is registered before the DataSource bean is created. Wrappers around
+     * another DataSource (e.g. the replica router) are skipped; the pools behind them are
+     * instrumented, so every statement is counted once.
+     */
+    @Bean
+    static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<SqlMetrics> sqlMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof DelegatingDataSource)) {
+                    return new InstrumentedDataSource(ds, sqlMetrics);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestSqlCountInterceptor).addPathPatterns("/api/**");
+    }
+}
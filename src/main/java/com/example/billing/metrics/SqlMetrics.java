@@ -0,0 +1,89 @@
+package com.example.billing.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every JDBC statement executed through the application DataSource (Hibernate and
+ * JdbcTemplate alike): an execution timer per statement kind, a per-thread count that the
+ * request interceptor turns into "statements per request", and a sampled slow-query log.
+ * Statements slower than the threshold are always counted but only a sample is logged,
+ * so a slow database cannot flood the log.
+ */
+@Component
+public class SqlMetrics {
+
+    private static final Logger slowLog = LoggerFactory.getLogger("com.example.billing.sql.slow");
+
+    private static final ThreadLocal<int[]> statementsOnThread = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final long slowThresholdNanos;
+    private final double slowSampleRate;
+    private final Timer selects, inserts, updates, deletes, others;
+    private final Counter slow;
+
+    public SqlMetrics(MeterRegistry registry,
+                      @Value("${billing.sql.slow-threshold:200ms}") Duration slowThreshold,
+                      @Value("${billing.sql.slow-log-sample-rate:1.0}") double slowSampleRate) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowSampleRate = slowSampleRate;
+        this.selects = timer(registry, "select");
+        this.inserts = timer(registry, "insert");
+        this.updates = timer(registry, "update");
+        this.deletes = timer(registry, "delete");
+        this.others  = timer(registry, "other");
+        this.slow = Counter.builder("billing.sql.slow")
+                .description("Statements slower than billing.sql.slow-threshold")
+                .register(registry);
+    }
+
+    private static Timer timer(MeterRegistry registry, String kind) {
+        return Timer.builder("billing.sql.execution")
+                .description("JDBC statement execution time")
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+    void record(String sql, int batchSize, long nanos) {
+        statementsOnThread.get()[0]++;
+        kindTimer(sql).record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos >= slowThresholdNanos) {
+            slow.increment();
+            if (slowSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < slowSampleRate) {
+                slowLog.warn("Slow SQL ({} ms{}): {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                        batchSize > 0 ? ", batch of " + batchSize : "", sql);
+            }
+        }
+    }
+
+    private Timer kindTimer(String sql) {
+        if (sql == null) return others;
+        String head = sql.stripLeading();
+        if (head.length() < 6) return others;
+        switch (head.substring(0, 6).toLowerCase(Locale.ROOT)) {
+            case "select": return selects;
+            case "insert": return inserts;
+            case "update": return updates;
+            case "delete": return deletes;
+            default:       return others;
+        }
+    }
+
+    /** Resets the current thread's statement count; returns the previous value. */
+    static int resetThreadCount() {
+        int[] c = statementsOnThread.get();
+        int n = c[0];
+        c[0] = 0;
+        return n;
+    }
+}
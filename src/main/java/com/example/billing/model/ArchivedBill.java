@@ -0,0 +1,51 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * A bill moved to the cold tier (bills_archive) by BillArchiveService. Keeps the id it
+ * had in bills, so keyset cursors work across both tables. Read-only once archived.
+ */
+@Entity
+@Table(name = "bills_archive",
+       uniqueConstraints = @UniqueConstraint(name = "uk_bill_archive_customer_period", columnNames = {"customer_id", "billing_period"}))
+public class ArchivedBill {
+
+    @Id
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false)
+    private Double unitsConsumed;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(nullable = false)
+    private LocalDate billDate;
+
+    private Long tariffVersion;
+
+    @Column(length = 7)
+    private String billingPeriod;
+
+    public ArchivedBill() {}
+
+    public Long getId() { return id; }
+
+    public Long getCustomerId() { return customerId; }
+
+    public Double getUnitsConsumed() { return unitsConsumed; }
+
+    public Double getAmount() { return amount; }
+
+    public LocalDate getBillDate() { return billDate; }
+
+    public Long getTariffVersion() { return tariffVersion; }
+
+    public String getBillingPeriod() { return billingPeriod; }
+}
@@ -7,7 +7,8 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "bills")
+@Table(name = "bills",
+       uniqueConstraints = @UniqueConstraint(name = "uk_bill_customer_period", columnNames = {"customer_id", "billing_period"}))
 public class Bill {
 
     @Id
@@ -25,7 +26,14 @@ public class Bill {
     @Column(nullable = false)
     private LocalDate billDate;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    /** Id of the Tariff version that priced this bill; null for bills created before versioning. */
+    private Long tariffVersion;
+
+    /** Period ("yyyy-MM") for bills produced by a billing run; at most one per customer. Null for ad-hoc bills. */
+    @Column(length = 7)
+    private String billingPeriod;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
@@ -43,6 +51,12 @@ public class Bill {
     public LocalDate getBillDate() { return billDate; }
     public void setBillDate(LocalDate billDate) { this.billDate = billDate; }
 
+    public Long getTariffVersion() { return tariffVersion; }
+    public void setTariffVersion(Long tariffVersion) { this.tariffVersion = tariffVersion; }
+
+    public String getBillingPeriod() { return billingPeriod; }
+    public void setBillingPeriod(String billingPeriod) { this.billingPeriod = billingPeriod; }
+
     public Customer getCustomer() { return customer; }
     public void setCustomer(Customer customer) { this.customer = customer; }
 }
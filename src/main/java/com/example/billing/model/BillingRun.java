@@ -0,0 +1,74 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One monthly billing run over all customers, split into id-range partitions.
+ * Progress counters are advanced in the same transaction that bills a partition.
+ */
+@Entity
+@Table(name = "billing_runs")
+public class BillingRun {
+
+    public enum Status { RUNNING, COMPLETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private int totalPartitions;
+
+    @Column(nullable = false)
+    private int completedPartitions;
+
+    @Column(nullable = false)
+    private long billsCreated;
+
+    public BillingRun() {}
+
+    public BillingRun(String period, int totalPartitions) {
+        this.period = period;
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+        this.totalPartitions = totalPartitions;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public int getTotalPartitions() { return totalPartitions; }
+    public void setTotalPartitions(int totalPartitions) { this.totalPartitions = totalPartitions; }
+
+    public int getCompletedPartitions() { return completedPartitions; }
+    public void setCompletedPartitions(int completedPartitions) { this.completedPartitions = completedPartitions; }
+
+    public long getBillsCreated() { return billsCreated; }
+    public void setBillsCreated(long billsCreated) { this.billsCreated = billsCreated; }
+}
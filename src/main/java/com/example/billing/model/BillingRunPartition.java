@@ -0,0 +1,90 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint for one customer id range [lowId, highId) of a billing run.
+ * A partition is marked done in the transaction that bills it, so a restarted run
+ * only re-processes partitions that never committed. It also records the totals of the
+ * bills it created; merged is set once they have been added to the dashboard summaries.
+ */
+@Entity
+@Table(name = "billing_run_partitions")
+public class BillingRunPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(nullable = false)
+    private long lowId;
+
+    @Column(nullable = false)
+    private long highId;
+
+    @Column(nullable = false)
+    private boolean done;
+
+    @Column(nullable = false)
+    private long billsCreated;
+
+    private LocalDateTime completedAt;
+
+    private LocalDate billDate;
+
+    @Column(nullable = false)
+    private double totalUnits;
+
+    @Column(nullable = false)
+    private double totalAmount;
+
+    @Column(nullable = false)
+    private boolean merged;
+
+    public BillingRunPartition() {}
+
+    public BillingRunPartition(Long runId, long lowId, long highId) {
+        this.runId = runId;
+        this.lowId = lowId;
+        this.highId = highId;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+
+    public long getLowId() { return lowId; }
+    public void setLowId(long lowId) { this.lowId = lowId; }
+
+    public long getHighId() { return highId; }
+    public void setHighId(long highId) { this.highId = highId; }
+
+    public boolean isDone() { return done; }
+    public void setDone(boolean done) { this.done = done; }
+
+    public long getBillsCreated() { return billsCreated; }
+    public void setBillsCreated(long billsCreated) { this.billsCreated = billsCreated; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public LocalDate getBillDate() { return billDate; }
+    public void setBillDate(LocalDate billDate) { this.billDate = billDate; }
+
+    public double getTotalUnits() { return totalUnits; }
+    public void setTotalUnits(double totalUnits) { this.totalUnits = totalUnits; }
+
+    public double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+
+    public boolean isMerged() { return merged; }
+    public void setMerged(boolean merged) { this.merged = merged; }
+}
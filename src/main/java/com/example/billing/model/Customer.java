@@ -1,14 +1,27 @@
 package com.example.billing.model;
 
+import com.example.billing.config.EntityCacheConfig;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Cached in the second level, by id and by email (see CustomerRepository.loadByEmail).
+ * Bulk JPQL updates such as markDeleted invalidate the region; CustomerPurgeJob, which
+ * deletes with plain SQL, evicts the rows it removes.
+ */
 @Entity
 @Table(name = "customers")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.CUSTOMERS)
+@NaturalIdCache(region = EntityCacheConfig.CUSTOMERS_BY_EMAIL)
 public class Customer {
 
     @Id
@@ -19,6 +32,7 @@ public class Customer {
     @Column(nullable = false)
     private String name;
 
+    @NaturalId(mutable = true)
     @NotBlank(message = "Email is required")
     @Email(message = "Invalid email format")
     @Column(nullable = false, unique = true)
@@ -33,10 +47,15 @@ public class Customer {
     @JoinColumn(name = "user_id", unique = true)
     private User user;
 
+    /** Bills are removed by CustomerPurgeJob with set-based deletes, never through this collection. */
     @JsonIgnore
-    @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "customer", fetch = FetchType.LAZY)
     private List<Bill> bills;
 
+    /** Set when the customer is deleted; the row and its bills are purged in the background. */
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
     public Customer() {}
 
     public Customer(String name, String email, String address, User user) {
@@ -63,4 +82,6 @@ public class Customer {
 
     public List<Bill> getBills() { return bills; }
     public void setBills(List<Bill> bills) { this.bills = bills; }
+
+    public LocalDateTime getDeletedAt() { return deletedAt; }
 }
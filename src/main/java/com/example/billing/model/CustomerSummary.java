@@ -0,0 +1,68 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Running bill totals for one customer, keyed by customer id.
+ * Backs the customer dashboard stat cards. dataVersion/lastModifiedMillis change with every
+ * write that touches the customer's data and back the ETags of the customer endpoints.
+ */
+@Entity
+@Table(name = "customer_summaries")
+public class CustomerSummary {
+
+    @Id
+    private Long customerId;
+
+    @Column(nullable = false)
+    private long billCount;
+
+    @Column(nullable = false)
+    private double totalUnits;
+
+    @Column(nullable = false)
+    private double totalAmount;
+
+    @Column(nullable = false)
+    private long dataVersion;
+
+    @Column(nullable = false)
+    private long lastModifiedMillis;
+
+    public CustomerSummary() {}
+
+    public CustomerSummary(Long customerId) {
+        this.customerId = customerId;
+        touch();
+    }
+
+    public void add(long bills, double units, double amount) {
+        this.billCount   += bills;
+        this.totalUnits  += units;
+        this.totalAmount += amount;
+        touch();
+    }
+
+    public void touch() {
+        this.dataVersion++;
+        this.lastModifiedMillis = System.currentTimeMillis();
+    }
+
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+
+    public long getBillCount() { return billCount; }
+    public void setBillCount(long billCount) { this.billCount = billCount; }
+
+    public double getTotalUnits() { return totalUnits; }
+    public void setTotalUnits(double totalUnits) { this.totalUnits = totalUnits; }
+
+    public double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+
+    public long getDataVersion() { return dataVersion; }
+    public void setDataVersion(long dataVersion) { this.dataVersion = dataVersion; }
+
+    public long getLastModifiedMillis() { return lastModifiedMillis; }
+    public void setLastModifiedMillis(long lastModifiedMillis) { this.lastModifiedMillis = lastModifiedMillis; }
+}
@@ -0,0 +1,61 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Single-row running totals for the admin dashboard.
+ * Maintained incrementally by StatsService so the dashboard never scans the bills table.
+ */
+@Entity
+@Table(name = "dashboard_summary")
+public class DashboardSummary {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long customerCount;
+
+    @Column(nullable = false)
+    private long billCount;
+
+    @Column(nullable = false)
+    private double totalUnits;
+
+    @Column(nullable = false)
+    private double totalRevenue;
+
+    public DashboardSummary() {}
+
+    public DashboardSummary(long customerCount, long billCount, double totalUnits, double totalRevenue) {
+        this.id = SINGLETON_ID;
+        this.customerCount = customerCount;
+        this.billCount = billCount;
+        this.totalUnits = totalUnits;
+        this.totalRevenue = totalRevenue;
+    }
+
+    public void add(long customers, long bills, double units, double revenue) {
+        this.customerCount += customers;
+        this.billCount     += bills;
+        this.totalUnits    += units;
+        this.totalRevenue  += revenue;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public long getCustomerCount() { return customerCount; }
+    public void setCustomerCount(long customerCount) { this.customerCount = customerCount; }
+
+    public long getBillCount() { return billCount; }
+    public void setBillCount(long billCount) { this.billCount = billCount; }
+
+    public double getTotalUnits() { return totalUnits; }
+    public void setTotalUnits(double totalUnits) { this.totalUnits = totalUnits; }
+
+    public double getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(double totalRevenue) { this.totalRevenue = totalRevenue; }
+}
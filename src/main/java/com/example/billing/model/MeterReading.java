@@ -0,0 +1,46 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A customer's consumption for one billing period ("yyyy-MM"), staged for a billing run.
+ * At most one reading per customer and period.
+ */
+@Entity
+@Table(name = "meter_readings",
+       uniqueConstraints = @UniqueConstraint(name = "uk_reading_customer_period", columnNames = {"period", "customer_id"}))
+public class MeterReading {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Column(nullable = false)
+    private Double unitsConsumed;
+
+    public MeterReading() {}
+
+    public MeterReading(Long customerId, String period, Double unitsConsumed) {
+        this.customerId = customerId;
+        this.period = period;
+        this.unitsConsumed = unitsConsumed;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public Double getUnitsConsumed() { return unitsConsumed; }
+    public void setUnitsConsumed(Double unitsConsumed) { this.unitsConsumed = unitsConsumed; }
+}
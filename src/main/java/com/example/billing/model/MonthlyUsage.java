@@ -0,0 +1,51 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Running bill totals for one calendar month, keyed by period "yyyy-MM".
+ */
+@Entity
+@Table(name = "monthly_usage")
+public class MonthlyUsage {
+
+    @Id
+    @Column(length = 7)
+    private String period;
+
+    @Column(nullable = false)
+    private long billCount;
+
+    @Column(nullable = false)
+    private double unitsConsumed;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    public MonthlyUsage() {}
+
+    public MonthlyUsage(String period, long billCount, double unitsConsumed, double revenue) {
+        this.period = period;
+        this.billCount = billCount;
+        this.unitsConsumed = unitsConsumed;
+        this.revenue = revenue;
+    }
+
+    public void add(long bills, double units, double revenue) {
+        this.billCount     += bills;
+        this.unitsConsumed += units;
+        this.revenue       += revenue;
+    }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public long getBillCount() { return billCount; }
+    public void setBillCount(long billCount) { this.billCount = billCount; }
+
+    public double getUnitsConsumed() { return unitsConsumed; }
+    public void setUnitsConsumed(double unitsConsumed) { this.unitsConsumed = unitsConsumed; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+}
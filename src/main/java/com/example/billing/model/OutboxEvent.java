@@ -0,0 +1,90 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event waiting for (or done with) delivery. Rows are inserted by the writer of the
+ * change in its own transaction, so an event exists exactly when the change committed.
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    /** PENDING until delivered (DONE) or out of attempts (FAILED). */
+    public enum Status { PENDING, DONE, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String eventType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    /** Event body as JSON. */
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime processedAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public OutboxEvent() {}
+
+    public Long getId() { return id; }
+
+    public String getEventType() { return eventType; }
+
+    public Long getAggregateId() { return aggregateId; }
+
+    public String getPayload() { return payload; }
+
+    public Status getStatus() { return status; }
+
+    public int getAttempts() { return attempts; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+
+    public LocalDateTime getProcessedAt() { return processedAt; }
+
+    public String getLastError() { return lastError; }
+
+    public void markDone(LocalDateTime now) {
+        this.status = Status.DONE;
+        this.attempts++;
+        this.processedAt = now;
+        this.lastError = null;
+    }
+
+    /** Records a failed attempt: retry at nextAttemptAt, or give up when it is null. */
+    public void markFailed(LocalDateTime now, LocalDateTime nextAttemptAt, String error) {
+        this.attempts++;
+        this.lastError = error == null || error.length() <= 500 ? error : error.substring(0, 500);
+        if (nextAttemptAt == null) {
+            this.status = Status.FAILED;
+            this.processedAt = now;
+        } else {
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.billing.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One published version of the slab tariff. The id doubles as the version number
+ * recorded on every bill priced with it. Versions are immutable once published.
+ */
+@Entity
+@Table(name = "tariffs")
+public class Tariff {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate effectiveFrom;
+
+    @Column(nullable = false)
+    private LocalDateTime publishedAt;
+
+    @OneToMany(mappedBy = "tariff", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("position")
+    private List<TariffSlab> slabs = new ArrayList<>();
+
+    public Tariff() {}
+
+    public Tariff(LocalDate effectiveFrom) {
+        this.effectiveFrom = effectiveFrom;
+        this.publishedAt = LocalDateTime.now();
+    }
+
+    public void addSlab(Long upToUnits, long ratePaise) {
+        slabs.add(new TariffSlab(this, slabs.size(), upToUnits, ratePaise));
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getEffectiveFrom() { return effectiveFrom; }
+    public void setEffectiveFrom(LocalDate effectiveFrom) { this.effectiveFrom = effectiveFrom; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+
+    public List<TariffSlab> getSlabs() { return slabs; }
+    public void setSlabs(List<TariffSlab> slabs) { this.slabs = slabs; }
+}
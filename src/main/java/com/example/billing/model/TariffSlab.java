@@ -0,0 +1,54 @@
+package com.example.billing.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+/**
+ * One rate band of a tariff: units above the previous slab's bound and up to upToUnits
+ * are charged ratePaise per unit. The last slab has a null upToUnits (no upper bound).
+ */
+@Entity
+@Table(name = "tariff_slabs")
+public class TariffSlab {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tariff_id", nullable = false)
+    private Tariff tariff;
+
+    @Column(nullable = false)
+    private int position;
+
+    private Long upToUnits;
+
+    @Column(nullable = false)
+    private long ratePaise;
+
+    public TariffSlab() {}
+
+    public TariffSlab(Tariff tariff, int position, Long upToUnits, long ratePaise) {
+        this.tariff = tariff;
+        this.position = position;
+        this.upToUnits = upToUnits;
+        this.ratePaise = ratePaise;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Tariff getTariff() { return tariff; }
+    public void setTariff(Tariff tariff) { this.tariff = tariff; }
+
+    public int getPosition() { return position; }
+    public void setPosition(int position) { this.position = position; }
+
+    public Long getUpToUnits() { return upToUnits; }
+    public void setUpToUnits(Long upToUnits) { this.upToUnits = upToUnits; }
+
+    public long getRatePaise() { return ratePaise; }
+    public void setRatePaise(long ratePaise) { this.ratePaise = ratePaise; }
+}
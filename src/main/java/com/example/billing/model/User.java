@@ -1,16 +1,25 @@
 package com.example.billing.model;
 
+import com.example.billing.config.EntityCacheConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+/** Cached in the second level, by id and by username (see UserRepository.loadByUsername). */
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USERS)
+@NaturalIdCache(region = EntityCacheConfig.USERS_BY_USERNAME)
 public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @NotBlank(message = "Username is required")
     @Column(nullable = false, unique = true)
     private String username;
@@ -23,9 +32,6 @@ public class User {
     @Column(nullable = false)
     private Role role;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private Customer customer;
-
     public User() {}
 
     public User(String username, String password, Role role) {
@@ -45,7 +51,4 @@ public class User {
 
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
-
-    public Customer getCustomer() { return customer; }
-    public void setCustomer(Customer customer) { this.customer = customer; }
 }
@@ -0,0 +1,10 @@
+package com.example.billing.outbox;
+
+import java.time.LocalDate;
+
+/** Payload of a BillGenerated outbox event. billingPeriod is null for ad-hoc bills. */
+public record BillGenerated(long billId, long customerId, double unitsConsumed, double amount,
+                            LocalDate billDate, String billingPeriod) {
+
+    public static final String TYPE = "BillGenerated";
+}
@@ -0,0 +1,40 @@
+package com.example.billing.outbox;
+
+import com.example.billing.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends each event as one NDJSON line to billing.outbox.sink-file, for local runs and
+ * for checking what would have been sent.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+
+    public FileOutboxSink(@Value("${billing.outbox.sink-file:outbox-events.ndjson}") String file) {
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public synchronized void deliver(OutboxEvent event) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write("{\"id\":" + event.getId()
+                    + ",\"type\":\"" + event.getEventType()
+                    + "\",\"aggregateId\":" + event.getAggregateId()
+                    + ",\"createdAt\":\"" + event.getCreatedAt()
+                    + "\",\"payload\":" + event.getPayload() + "}\n");
+        }
+    }
+}
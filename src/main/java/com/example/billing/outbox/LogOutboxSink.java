@@ -0,0 +1,20 @@
+package com.example.billing.outbox;
+
+import com.example.billing.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Default sink: one log line per event on com.example.billing.outbox.notifications. */
+@Component
+@ConditionalOnProperty(name = "billing.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger("com.example.billing.outbox.notifications");
+
+    @Override
+    public void deliver(OutboxEvent event) {
+        log.info("{} #{} for {}: {}", event.getEventType(), event.getId(), event.getAggregateId(), event.getPayload());
+    }
+}
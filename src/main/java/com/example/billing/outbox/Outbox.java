@@ -0,0 +1,68 @@
+package com.example.billing.outbox;
+
+import com.example.billing.model.Bill;
+import com.example.billing.repository.BillBatchRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes outbox events. Joins the caller's transaction, so the event rows commit or roll
+ * back together with the bills they describe; delivery is left to OutboxDispatcher.
+ * Inserts go through JDBC batches like the bulk bill paths.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class Outbox {
+
+    private static final String INSERT_SQL =
+            "insert into outbox_events (event_type, aggregate_id, payload, status, attempts, created_at, next_attempt_at) " +
+            "values (?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void billGenerated(Bill bill) {
+        BillGenerated event = new BillGenerated(bill.getId(), bill.getCustomer().getId(), bill.getUnitsConsumed(),
+                bill.getAmount(), bill.getBillDate(), bill.getBillingPeriod());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, BillGenerated.TYPE, event.billId(), json(event), now, now);
+    }
+
+    /** One event per bill of a batch insert; rows [0, count) of the arrays passed to BillBatchRepository.insertAll. */
+    public void billsGenerated(long[] billIds, long[] customerIds, double[] units, double[] amounts,
+                               LocalDate billDate, String billingPeriod, int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int start = 0; start < count; start += BillBatchRepository.BATCH_SIZE) {
+            int end = Math.min(start + BillBatchRepository.BATCH_SIZE, count);
+            List<Object[]> rows = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                BillGenerated event = new BillGenerated(billIds[i], customerIds[i], units[i], amounts[i],
+                        billDate, billingPeriod);
+                rows.add(new Object[] {BillGenerated.TYPE, billIds[i], json(event), now, now});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    private String json(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox event " + event, e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.billing.outbox;
+
+import com.example.billing.config.BackgroundThreads;
+import com.example.billing.model.OutboxEvent;
+import com.example.billing.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox on its own thread, off the request path. Each batch is claimed with
+ * SELECT ... FOR UPDATE SKIP LOCKED, handed to the sink one event at a time and marked in
+ * the same transaction: delivered events become DONE, failed ones are retried with
+ * exponential backoff until max-attempts, then left FAILED for inspection. A full batch
+ * is followed immediately by the next one; otherwise the dispatcher sleeps for poll-interval.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxSink sink;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    @Value("${billing.outbox.poll-interval:1s}")
+    private Duration pollInterval;
+
+    @Value("${billing.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${billing.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${billing.outbox.backoff-initial:5s}")
+    private Duration backoffInitial;
+
+    @Value("${billing.outbox.backoff-max:30m}")
+    private Duration backoffMax;
+
+    /** DONE events older than this are deleted. */
+    @Value("${billing.outbox.retention:7d}")
+    private Duration retention;
+
+    private ScheduledExecutorService executor;
+    private TransactionTemplate tx;
+    private Counter delivered, retried, failed;
+    private Timer deliveryTimer;
+    private long lastPurge;
+
+    @PostConstruct
+    void start() {
+        tx = new TransactionTemplate(transactionManager);
+        delivered = meterRegistry.counter("billing.outbox.events", "result", "delivered");
+        retried   = meterRegistry.counter("billing.outbox.events", "result", "retried");
+        failed    = meterRegistry.counter("billing.outbox.events", "result", "failed");
+        deliveryTimer = meterRegistry.timer("billing.outbox.delivery");
+        executor = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("outbox-dispatcher"));
+        executor.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted() && dispatchBatch() == batchSize) {
+                // full batch: more may be due
+            }
+            purgeDone();
+        } catch (Exception e) {
+            // keep the schedule alive; the batch rolled back and will be claimed again
+            log.warn("Outbox dispatch failed: {}", e.toString());
+        }
+    }
+
+    /** Delivers one batch of due events; returns how many were claimed. */
+    int dispatchBatch() {
+        Integer claimed = tx.execute(s -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxEventRepository.claimDue(now, Limit.of(batchSize));
+            for (OutboxEvent event : events) {
+                long started = System.nanoTime();
+                try {
+                    sink.deliver(event);
+                    event.markDone(LocalDateTime.now());
+                    delivered.increment();
+                } catch (Exception e) {
+                    LocalDateTime retryAt = event.getAttempts() + 1 >= maxAttempts ? null : now.plus(backoff(event.getAttempts() + 1));
+                    event.markFailed(LocalDateTime.now(), retryAt, e.toString());
+                    (retryAt == null ? failed : retried).increment();
+                    if (retryAt == null) {
+                        log.warn("Outbox event #{} ({}) failed after {} attempts: {}",
+                                event.getId(), event.getEventType(), event.getAttempts(), e.toString());
+                    }
+                } finally {
+                    deliveryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            }
+            return events.size();
+        });
+        return claimed == null ? 0 : claimed;
+    }
+
+    /** initial * 2^(attempts-1), capped at backoff-max. */
+    Duration backoff(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        Duration delay = backoffInitial.multipliedBy(1L << shift);
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    /** At most once an hour. */
+    private void purgeDone() {
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis - lastPurge < Duration.ofHours(1).toMillis()) return;
+        lastPurge = nowMillis;
+        Integer deleted = tx.execute(s -> outboxEventRepository.deleteByStatusProcessedBefore(
+                OutboxEvent.Status.DONE, LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) log.info("Outbox: purged {} delivered events", deleted);
+    }
+}
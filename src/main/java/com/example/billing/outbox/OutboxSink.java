@@ -0,0 +1,14 @@
+package com.example.billing.outbox;
+
+import com.example.billing.model.OutboxEvent;
+
+/**
+ * Delivers outbox events (notification email, message broker, ...). Selected with
+ * billing.outbox.sink. Delivery is at-least-once: an event can be handed over again after a
+ * crash or a failed commit, so implementations should de-duplicate on the event id.
+ * Throwing marks the attempt failed and schedules a retry.
+ */
+public interface OutboxSink {
+
+    void deliver(OutboxEvent event) throws Exception;
+}
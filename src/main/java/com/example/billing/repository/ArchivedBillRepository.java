@@ -0,0 +1,68 @@
+package com.example.billing.repository;
+
+import com.example.billing.dto.BillCursor;
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillView;
+import com.example.billing.model.ArchivedBill;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/** Reads of the cold tier, mirroring the BillRepository listing and totals queries. */
+@Repository
+public interface ArchivedBillRepository extends JpaRepository<ArchivedBill, Long> {
+
+    @Query(PAGE_SELECT + "and b.customerId = :customerId " + BillRepository.PAGE_FILTERS)
+    List<BillView> findPageForCustomer(@Param("customerId") Long customerId,
+                                       @Param("fromDate") LocalDate fromDate,
+                                       @Param("toDate") LocalDate toDate,
+                                       @Param("minAmount") Double minAmount,
+                                       @Param("maxAmount") Double maxAmount,
+                                       @Param("cursorDate") LocalDate cursorDate,
+                                       @Param("cursorId") Long cursorId,
+                                       Limit limit);
+
+    @Query(PAGE_SELECT + BillRepository.PAGE_FILTERS)
+    List<BillView> findPageForAll(@Param("fromDate") LocalDate fromDate,
+                                  @Param("toDate") LocalDate toDate,
+                                  @Param("minAmount") Double minAmount,
+                                  @Param("maxAmount") Double maxAmount,
+                                  @Param("cursorDate") LocalDate cursorDate,
+                                  @Param("cursorId") Long cursorId,
+                                  Limit limit);
+
+    /** Same shape as BillRepository.PAGE_SELECT. */
+    String PAGE_SELECT =
+           "select new com.example.billing.dto.BillView(b.id, b.unitsConsumed, b.amount, b.billDate, b.customerId, " +
+           "(select c.name from Customer c where c.id = b.customerId)) from ArchivedBill b " +
+           "where not exists (select 1 from Customer c where c.id = b.customerId and c.deletedAt is not null) ";
+
+    default List<BillView> findPageRows(BillFilter filter, BillCursor after, int rows) {
+        LocalDate from = filter.from() == null ? BillRepository.FIRST_DATE : filter.from();
+        LocalDate to = filter.to() == null ? BillRepository.LAST_DATE : filter.to();
+        LocalDate cursorDate = after == null ? BillRepository.LAST_DATE : after.billDate();
+        Long cursorId = after == null ? Long.MAX_VALUE : after.id();
+        return filter.customerId() != null
+                ? findPageForCustomer(filter.customerId(), from, to,
+                        filter.minAmount(), filter.maxAmount(), cursorDate, cursorId, Limit.of(rows))
+                : findPageForAll(from, to,
+                        filter.minAmount(), filter.maxAmount(), cursorDate, cursorId, Limit.of(rows));
+    }
+
+    @Query("select year(b.billDate) as year, month(b.billDate) as month, count(b) as bills, " +
+           "sum(b.unitsConsumed) as units, sum(b.amount) as amount " +
+           "from ArchivedBill b join Customer c on c.id = b.customerId where c.deletedAt is null " +
+           "group by year(b.billDate), month(b.billDate)")
+    List<BillRepository.PeriodTotals> totalsByMonth();
+
+    @Query("select year(b.billDate) as year, month(b.billDate) as month, count(b) as bills, " +
+           "sum(b.unitsConsumed) as units, sum(b.amount) as amount " +
+           "from ArchivedBill b where b.customerId in :customerIds group by year(b.billDate), month(b.billDate)")
+    List<BillRepository.PeriodTotals> totalsByMonthForCustomers(@Param("customerIds") Collection<Long> customerIds);
+}
@@ -0,0 +1,66 @@
+package com.example.billing.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Plain-JDBC bill inserts for bulk paths. Hibernate cannot batch inserts for IDENTITY ids,
+ * so bulk generation bypasses the entity manager and sends multi-row JDBC batches
+ * on the transaction's connection. (With MySQL, add rewriteBatchedStatements=true to the URL.)
+ */
+@Repository
+public class BillBatchRepository {
+
+    public static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_SQL =
+            "insert into bills (units_consumed, amount, bill_date, tariff_version, billing_period, customer_id) " +
+            "values (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts rows [0, count) of the given columns in batches of BATCH_SIZE.
+     * billingPeriod may be null for ad-hoc bills.
+     * Returns the generated ids in input order.
+     */
+    public long[] insertAll(long[] customerIds, double[] units, double[] amounts,
+                            LocalDate billDate, long tariffVersion, String billingPeriod, int count) {
+        long[] ids = new long[count];
+        Date date = Date.valueOf(billDate);
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int start = 0; start < count; start += BATCH_SIZE) {
+                    int end = Math.min(start + BATCH_SIZE, count);
+                    for (int i = start; i < end; i++) {
+                        ps.setDouble(1, units[i]);
+                        ps.setDouble(2, amounts[i]);
+                        ps.setDate(3, date);
+                        ps.setLong(4, tariffVersion);
+                        ps.setString(5, billingPeriod);
+                        ps.setLong(6, customerIds[i]);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        int i = start;
+                        while (keys.next() && i < end) {
+                            ids[i++] = keys.getLong(1);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.billing.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forward-only JDBC scan of bills (archived, then hot) for exports. Rows are handed to the caller one at a time
+ * and never become entities, so memory does not grow with the table. On MySQL the driver
+ * streams rows (fetch size Integer.MIN_VALUE); other drivers use billing.export.fetch-size.
+ */
+@Repository
+public class BillExportRepository {
+
+    /** One exported row; fields are overwritten for every row, so copy what you keep. */
+    public static final class Row {
+        public long id;
+        public long customerId;
+        public String customerName;
+        public LocalDate billDate;
+        public double unitsConsumed;
+        public double amount;
+        public Long tariffVersion;
+        public String billingPeriod;
+    }
+
+    @FunctionalInterface
+    public interface RowWriter {
+        void write(Row row) throws IOException;
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${billing.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Streams archived bills, then hot bills, each in id order; null bounds are ignored.
+     * Returns the number of rows written.
+     *
+     * Both scans run in one read-only REPEATABLE READ transaction and so read one snapshot.
+     * Otherwise an archive pass committing between them would move bills out of the hot
+     * table after the archive scan, and the export would silently leave them out. The
+     * transaction (and on MySQL the undo history it keeps) lasts as long as the export.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long forEach(Long customerId, LocalDate from, LocalDate to, RowWriter writer) {
+        return forEach("bills_archive", customerId, from, to, writer) + forEach("bills", customerId, from, to, writer);
+    }
+
+    private long forEach(String table, Long customerId, LocalDate from, LocalDate to, RowWriter writer) {
+        StringBuilder sql = new StringBuilder(
+                "select b.id, b.customer_id, c.name, b.bill_date, b.units_consumed, b.amount, " +
+                "b.tariff_version, b.billing_period from " + table + " b join customers c on c.id = b.customer_id where c.deleted_at is null");
+        List<Object> args = new ArrayList<>();
+        if (customerId != null) { sql.append(" and b.customer_id = ?"); args.add(customerId); }
+        if (from != null)       { sql.append(" and b.bill_date >= ?");  args.add(Date.valueOf(from)); }
+        if (to != null)         { sql.append(" and b.bill_date <= ?");  args.add(Date.valueOf(to)); }
+        sql.append(" order by b.id");
+
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            boolean mysql = con.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            try (PreparedStatement ps = con.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+                for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    return drain(rs, writer);
+                }
+            }
+        });
+    }
+
+    private static long drain(ResultSet rs, RowWriter writer) throws SQLException {
+        Row row = new Row();
+        long count = 0;
+        try {
+            while (rs.next()) {
+                row.id            = rs.getLong(1);
+                row.customerId    = rs.getLong(2);
+                row.customerName  = rs.getString(3);
+                row.billDate      = rs.getDate(4).toLocalDate();
+                row.unitsConsumed = rs.getDouble(5);
+                row.amount        = rs.getDouble(6);
+                long version      = rs.getLong(7);
+                row.tariffVersion = rs.wasNull() ? null : version;
+                row.billingPeriod = rs.getString(8);
+                writer.write(row);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+}
@@ -1,12 +1,100 @@
 package com.example.billing.repository;
 
+import com.example.billing.dto.BillCursor;
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillView;
 import com.example.billing.model.Bill;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BillRepository extends JpaRepository<Bill, Long> {
-    List<Bill> findByCustomerId(Long customerId);
+
+    /**
+     * Keyset page in (billDate desc, id desc) order, projected to BillView in a single
+     * select. Null amount filters are ignored; call it through findPageRows, which fills
+     * in missing dates and the first page's cursor.
+     * The customer variant keeps customer_id a plain equality so it can seek
+     * idx_bills_customer_date; the unfiltered one walks idx_bills_date. Customers are
+     * only looked up per returned row (name, soft delete), so the planner cannot start
+     * from the customers table and sort every bill.
+     */
+    @Query(PAGE_SELECT + "and b.customer.id = :customerId " + PAGE_FILTERS)
+    List<BillView> findPageForCustomer(@Param("customerId") Long customerId,
+                                       @Param("fromDate") LocalDate fromDate,
+                                       @Param("toDate") LocalDate toDate,
+                                       @Param("minAmount") Double minAmount,
+                                       @Param("maxAmount") Double maxAmount,
+                                       @Param("cursorDate") LocalDate cursorDate,
+                                       @Param("cursorId") Long cursorId,
+                                       Limit limit);
+
+    @Query(PAGE_SELECT + PAGE_FILTERS)
+    List<BillView> findPageForAll(@Param("fromDate") LocalDate fromDate,
+                                  @Param("toDate") LocalDate toDate,
+                                  @Param("minAmount") Double minAmount,
+                                  @Param("maxAmount") Double maxAmount,
+                                  @Param("cursorDate") LocalDate cursorDate,
+                                  @Param("cursorId") Long cursorId,
+                                  Limit limit);
+
+    String PAGE_SELECT =
+           "select new com.example.billing.dto.BillView(b.id, b.unitsConsumed, b.amount, b.billDate, b.customer.id, " +
+           "(select c.name from Customer c where c.id = b.customer.id)) from Bill b " +
+           "where not exists (select 1 from Customer c where c.id = b.customer.id and c.deletedAt is not null) ";
+
+    /** Filters, cursor and order on bill alias b; shared with ArchivedBillRepository. */
+    String PAGE_FILTERS =
+           "and b.billDate >= :fromDate and b.billDate <= :toDate " +
+           "and (:minAmount is null or b.amount >= :minAmount) " +
+           "and (:maxAmount is null or b.amount <= :maxAmount) " +
+           "and b.billDate <= :cursorDate " +
+           "and (b.billDate < :cursorDate or (b.billDate = :cursorDate and b.id < :cursorId)) " +
+           "order by b.billDate desc, b.id desc";
+
+    /**
+     * Stand-ins for a missing date filter or cursor: the date predicates stay plain ranges
+     * the planner can seek on, where "(:fromDate is null or ...)" would hide them.
+     */
+    LocalDate FIRST_DATE = LocalDate.of(1000, 1, 1);
+    LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
+    /** Up to `rows` rows of the keyset page after the cursor (callers ask for one extra to detect a next page). */
+    default List<BillView> findPageRows(BillFilter filter, BillCursor after, int rows) {
+        LocalDate from = filter.from() == null ? FIRST_DATE : filter.from();
+        LocalDate to = filter.to() == null ? LAST_DATE : filter.to();
+        LocalDate cursorDate = after == null ? LAST_DATE : after.billDate();
+        Long cursorId = after == null ? Long.MAX_VALUE : after.id();
+        return filter.customerId() != null
+                ? findPageForCustomer(filter.customerId(), from, to,
+                        filter.minAmount(), filter.maxAmount(), cursorDate, cursorId, Limit.of(rows))
+                : findPageForAll(from, to,
+                        filter.minAmount(), filter.maxAmount(), cursorDate, cursorId, Limit.of(rows));
+    }
+
+    /** Aggregate row used when (re)building the dashboard summaries. */
+    interface PeriodTotals {
+        Integer getYear();
+        Integer getMonth();
+        Long getBills();
+        Double getUnits();
+        Double getAmount();
+    }
+
+    @Query("select year(b.billDate) as year, month(b.billDate) as month, count(b) as bills, " +
+           "sum(b.unitsConsumed) as units, sum(b.amount) as amount " +
+           "from Bill b where b.customer.deletedAt is null group by year(b.billDate), month(b.billDate)")
+    List<PeriodTotals> totalsByMonth();
+
+    @Query("select year(b.billDate) as year, month(b.billDate) as month, count(b) as bills, " +
+           "sum(b.unitsConsumed) as units, sum(b.amount) as amount " +
+           "from Bill b where b.customer.id in :customerIds group by year(b.billDate), month(b.billDate)")
+    List<PeriodTotals> totalsByMonthForCustomers(@Param("customerIds") Collection<Long> customerIds);
 }
@@ -0,0 +1,37 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.BillingRunPartition;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BillingRunPartitionRepository extends JpaRepository<BillingRunPartition, Long> {
+
+    List<BillingRunPartition> findByRunIdAndDoneFalseOrderByLowId(Long runId);
+
+    /**
+     * Claims an unfinished partition for the transaction that bills it. A partition another
+     * node is billing is skipped (lock timeout -2 = SKIP LOCKED), like one that has finished.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select p from BillingRunPartition p where p.id = :id and p.done = false")
+    Optional<BillingRunPartition> claimPending(@Param("id") Long id);
+
+    /** Finished partitions whose totals are not in the summaries yet, locked against a concurrent merge. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<BillingRunPartition> findByRunIdAndDoneTrueAndMergedFalse(Long runId);
+
+    /** End of the customer id range the run's partitions cover (1 when it has none). */
+    @Query("select coalesce(max(p.highId), 1) from BillingRunPartition p where p.runId = :runId")
+    long findCoveredUpTo(@Param("runId") Long runId);
+}
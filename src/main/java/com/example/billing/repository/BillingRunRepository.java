@@ -0,0 +1,31 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.BillingRun;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BillingRunRepository extends JpaRepository<BillingRun, Long> {
+
+    List<BillingRun> findByStatus(BillingRun.Status status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<BillingRun> findForUpdateById(Long id);
+
+    Optional<BillingRun> findFirstByPeriodAndStatus(String period, BillingRun.Status status);
+
+    List<BillingRun> findTop20ByOrderByIdDesc();
+
+    @Modifying
+    @Query("update BillingRun r set r.completedPartitions = r.completedPartitions + 1, " +
+           "r.billsCreated = r.billsCreated + :bills where r.id = :id")
+    int recordPartition(@Param("id") Long id, @Param("bills") long bills);
+}
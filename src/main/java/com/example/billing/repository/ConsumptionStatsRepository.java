@@ -0,0 +1,238 @@
+package com.example.billing.repository;
+
+import com.example.billing.dto.AnomalyView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Plain-JDBC access to consumption_stats and bill_anomalies. Rows are loaded and written
+ * in batches of BillBatchRepository.BATCH_SIZE, so a billing run costs a few statements
+ * per thousand customers rather than one per bill.
+ */
+@Repository
+public class ConsumptionStatsRepository {
+
+    /** Row 0: every bill; rows 1-12: bills dated in that calendar month. */
+    public static final int ALL_MONTHS = 0;
+
+    /** One consumption_stats row, updated in place with Welford's online algorithm. */
+    public static final class Stats {
+        public final long customerId;
+        public final int monthOfYear;
+        public long billCount;
+        public double meanUnits;
+        public double m2Units;
+        public Double lastUnits;
+        public LocalDate lastBillDate;
+        boolean stored;
+
+        public Stats(long customerId, int monthOfYear) {
+            this.customerId = customerId;
+            this.monthOfYear = monthOfYear;
+        }
+
+        public void add(double units, LocalDate billDate) {
+            billCount++;
+            double delta = units - meanUnits;
+            meanUnits += delta / billCount;
+            m2Units += delta * (units - meanUnits);
+            lastUnits = units;
+            lastBillDate = billDate;
+        }
+
+        /** Sample standard deviation; 0 below two bills. */
+        public double stdDev() {
+            return billCount < 2 ? 0 : Math.sqrt(m2Units / (billCount - 1));
+        }
+    }
+
+    public record Anomaly(long billId, long customerId, LocalDate billDate, double unitsConsumed,
+                          double expectedUnits, double stdDev, double score) {
+    }
+
+    @FunctionalInterface
+    public interface BillHandler {
+        void accept(long customerId, long billId, LocalDate billDate, double unitsConsumed);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${billing.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * The all-months row and the given month's row of each customer, as { all, month },
+     * locked until the caller commits. Missing rows are created empty first, so every
+     * writer of a customer's statistics queues on the same row locks: concurrent bills
+     * cannot lose an update and a new customer's rows cannot be inserted twice. Rows are
+     * locked in (customer, month) order, the same for every writer.
+     */
+    public Map<Long, Stats[]> find(Collection<Long> customerIds, int monthOfYear) {
+        Map<Long, Stats[]> res = new HashMap<>(customerIds.size() * 2);
+        for (Long id : customerIds) {
+            res.put(id, new Stats[] { new Stats(id, ALL_MONTHS), new Stats(id, monthOfYear) });
+        }
+        lockAndLoad(new ArrayList<>(new TreeSet<>(customerIds)), monthOfYear, res);
+        List<Stats> missing = new ArrayList<>();
+        for (Stats[] pair : res.values()) {
+            for (Stats s : pair) if (!s.stored) missing.add(s);
+        }
+        if (!missing.isEmpty()) {
+            // no-op on a row another writer created in the meantime; it is loaded below
+            jdbcTemplate.batchUpdate(
+                    "insert into consumption_stats (bill_count, mean_units, m2_units, last_units, last_bill_date, " +
+                    "customer_id, month_of_year) values (?, ?, ?, ?, ?, ?, ?) " +
+                    "on duplicate key update customer_id = customer_id",
+                    missing, BillBatchRepository.BATCH_SIZE, ConsumptionStatsRepository::bind);
+            Set<Long> ids = new TreeSet<>();
+            for (Stats s : missing) ids.add(s.customerId);
+            lockAndLoad(new ArrayList<>(ids), monthOfYear, res);
+        }
+        return res;
+    }
+
+    private void lockAndLoad(List<Long> ids, int monthOfYear, Map<Long, Stats[]> res) {
+        for (int i = 0; i < ids.size(); i += BillBatchRepository.BATCH_SIZE) {
+            Map<String, Object> params = Map.of(
+                    "ids", ids.subList(i, Math.min(i + BillBatchRepository.BATCH_SIZE, ids.size())),
+                    "month", monthOfYear);
+            namedJdbcTemplate.query(
+                    "select customer_id, month_of_year, bill_count, mean_units, m2_units, last_units, last_bill_date " +
+                    "from consumption_stats where customer_id in (:ids) and month_of_year in (0, :month) " +
+                    "order by customer_id, month_of_year for update",
+                    params, rs -> {
+                        Stats[] pair = res.get(rs.getLong(1));
+                        Stats s = pair[rs.getInt(2) == ALL_MONTHS ? 0 : 1];
+                        s.billCount = rs.getLong(3);
+                        s.meanUnits = rs.getDouble(4);
+                        s.m2Units   = rs.getDouble(5);
+                        double last = rs.getDouble(6);
+                        s.lastUnits = rs.wasNull() ? null : last;
+                        Date date   = rs.getDate(7);
+                        s.lastBillDate = date == null ? null : date.toLocalDate();
+                        s.stored = true;
+                    });
+        }
+    }
+
+    /** Inserts new rows and updates loaded ones, one JDBC batch each. */
+    public void save(Collection<Stats> stats) {
+        List<Stats> inserts = new ArrayList<>();
+        List<Stats> updates = new ArrayList<>();
+        for (Stats s : stats) (s.stored ? updates : inserts).add(s);
+        jdbcTemplate.batchUpdate(
+                "insert into consumption_stats (bill_count, mean_units, m2_units, last_units, last_bill_date, " +
+                "customer_id, month_of_year) values (?, ?, ?, ?, ?, ?, ?)",
+                inserts, BillBatchRepository.BATCH_SIZE, ConsumptionStatsRepository::bind);
+        jdbcTemplate.batchUpdate(
+                "update consumption_stats set bill_count = ?, mean_units = ?, m2_units = ?, last_units = ?, " +
+                "last_bill_date = ? where customer_id = ? and month_of_year = ?",
+                updates, BillBatchRepository.BATCH_SIZE, ConsumptionStatsRepository::bind);
+        inserts.forEach(s -> s.stored = true);
+    }
+
+    private static void bind(PreparedStatement ps, Stats s) throws SQLException {
+        ps.setLong(1, s.billCount);
+        ps.setDouble(2, s.meanUnits);
+        ps.setDouble(3, s.m2Units);
+        if (s.lastUnits == null) ps.setNull(4, Types.DOUBLE); else ps.setDouble(4, s.lastUnits);
+        if (s.lastBillDate == null) ps.setNull(5, Types.DATE); else ps.setDate(5, Date.valueOf(s.lastBillDate));
+        ps.setLong(6, s.customerId);
+        ps.setInt(7, s.monthOfYear);
+    }
+
+    public void insertAnomalies(List<Anomaly> anomalies) {
+        jdbcTemplate.batchUpdate(
+                "insert into bill_anomalies (bill_id, customer_id, bill_date, units_consumed, expected_units, " +
+                "std_dev, score) values (?, ?, ?, ?, ?, ?, ?)",
+                anomalies, BillBatchRepository.BATCH_SIZE, (ps, a) -> {
+                    ps.setLong(1, a.billId());
+                    ps.setLong(2, a.customerId());
+                    ps.setDate(3, Date.valueOf(a.billDate()));
+                    ps.setDouble(4, a.unitsConsumed());
+                    ps.setDouble(5, a.expectedUnits());
+                    ps.setDouble(6, a.stdDev());
+                    ps.setDouble(7, a.score());
+                });
+    }
+
+    /** Flagged bills of active customers, newest first, with bill id below beforeBillId. */
+    public List<AnomalyView> findAnomalies(long beforeBillId, int limit) {
+        return jdbcTemplate.query(
+                "select a.bill_id, a.customer_id, c.name, a.bill_date, a.units_consumed, a.expected_units, " +
+                "a.std_dev, a.score from bill_anomalies a join customers c on c.id = a.customer_id " +
+                "where a.bill_id < ? and c.deleted_at is null order by a.bill_id desc limit ?",
+                (rs, i) -> new AnomalyView(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                        rs.getDate(4).toLocalDate(), rs.getDouble(5), rs.getDouble(6), rs.getDouble(7), rs.getDouble(8)),
+                beforeBillId, limit);
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("select customer_id from consumption_stats limit 1", Long.class).isEmpty();
+    }
+
+    /**
+     * Statistics first: that delete waits for writers holding rows and then blocks new ones
+     * until the caller commits, so no writer adds a flag after bill_anomalies is cleared.
+     */
+    public void deleteAll() {
+        jdbcTemplate.update("delete from consumption_stats");
+        jdbcTemplate.update("delete from bill_anomalies");
+    }
+
+    /**
+     * Streams every bill of active customers (archived and hot) ordered by customer, date
+     * and id, so a caller can rebuild per-customer state holding one customer at a time.
+     * Reads on a connection of its own: MySQL allows no other statement on a connection
+     * while it streams rows, and the caller writes as it reads. Returns the number of bills.
+     */
+    public long forEachBill(BillHandler handler) throws SQLException {
+        String sql =
+                "select b.customer_id, b.id, b.bill_date, b.units_consumed from bills_archive b " +
+                "join customers c on c.id = b.customer_id where c.deleted_at is null " +
+                "union all " +
+                "select b.customer_id, b.id, b.bill_date, b.units_consumed from bills b " +
+                "join customers c on c.id = b.customer_id where c.deleted_at is null " +
+                "order by 1, 3, 2";
+        try (Connection con = dataSource.getConnection()) {
+            boolean mysql = con.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            try (PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    long count = 0;
+                    while (rs.next()) {
+                        handler.accept(rs.getLong(1), rs.getLong(2), rs.getDate(3).toLocalDate(), rs.getDouble(4));
+                        count++;
+                    }
+                    return count;
+                }
+            }
+        }
+    }
+}
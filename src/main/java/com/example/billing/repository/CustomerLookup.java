@@ -0,0 +1,15 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.Customer;
+
+import java.util.Optional;
+
+/** CustomerRepository fragment: lookups by natural id, served from the second-level cache. */
+public interface CustomerLookup {
+
+    /**
+     * The customer (deleted or not, like the unique key) with this email; no SQL when the
+     * email and the customer are cached.
+     */
+    Optional<Customer> loadByEmail(String email);
+}
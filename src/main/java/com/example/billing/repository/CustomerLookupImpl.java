@@ -0,0 +1,19 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class CustomerLookupImpl implements CustomerLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Customer> loadByEmail(String email) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Customer.class).loadOptional(email);
+    }
+}
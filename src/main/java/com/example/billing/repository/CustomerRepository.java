@@ -1,13 +1,58 @@
 package com.example.billing.repository;
 
 import com.example.billing.model.Customer;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
-    boolean existsByEmail(String email);
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerLookup {
     Optional<Customer> findByUserId(Long userId);
+
+    /** Keyset page in id order; pass 0 as afterId for the first page. */
+    List<Customer> findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(Long afterId, Limit limit);
+
+    long countByDeletedAtIsNull();
+
+    @Query("select coalesce(max(c.id), 0) from Customer c")
+    long findMaxId();
+
+    /**
+     * Ids of the given customers that are not deleted. The rows are share-locked, so a
+     * concurrent delete waits for bills being added to them and later writers see the flag.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c.id from Customer c where c.id in :ids and c.deletedAt is null")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /** Share-locked like findExistingIds. */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Customer c where c.id = :id and c.deletedAt is null")
+    Optional<Customer> findActiveForShare(@Param("id") Long id);
+
+    interface Deletion {
+        Long getId();
+        Long getUserId();
+    }
+
+    @Query("select c.id as id, c.user.id as userId from Customer c where c.id in :ids and c.deletedAt is null")
+    List<Deletion> findForDeletion(@Param("ids") Collection<Long> ids);
+
+    /** Flags the customers deleted and detaches their login; rows are locked until commit. */
+    @Modifying
+    @Query("update Customer c set c.deletedAt = :now, c.user = null where c.id in :ids and c.deletedAt is null")
+    int markDeleted(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("select c.id from Customer c where c.deletedAt is not null order by c.deletedAt, c.id")
+    List<Long> findDeletedIds(Limit limit);
 }
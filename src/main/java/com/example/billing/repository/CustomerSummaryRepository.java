@@ -0,0 +1,35 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.CustomerSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CustomerSummaryRepository extends JpaRepository<CustomerSummary, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<CustomerSummary> findForUpdateByCustomerId(Long customerId);
+
+    /** Rebuilds one summary row per customer from the bills table (startup backfill only). */
+    @Modifying
+    @Query("insert into CustomerSummary (customerId, billCount, totalUnits, totalAmount, dataVersion, lastModifiedMillis) " +
+           "select c.id, count(b.id), coalesce(sum(b.unitsConsumed), 0), coalesce(sum(b.amount), 0), 1, :now " +
+           "from Customer c left join c.bills b where c.deletedAt is null group by c.id")
+    int rebuildAll(@Param("now") long now);
+
+    /** Adds archived bills to the rows written by rebuildAll. */
+    @Modifying
+    @Query("update CustomerSummary s set " +
+           "s.billCount = s.billCount + (select count(a) from ArchivedBill a where a.customerId = s.customerId), " +
+           "s.totalUnits = s.totalUnits + (select coalesce(sum(a.unitsConsumed), 0) from ArchivedBill a where a.customerId = s.customerId), " +
+           "s.totalAmount = s.totalAmount + (select coalesce(sum(a.amount), 0) from ArchivedBill a where a.customerId = s.customerId) " +
+           "where exists (select 1 from ArchivedBill a where a.customerId = s.customerId)")
+    int addArchivedTotals();
+}
@@ -0,0 +1,16 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.DashboardSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DashboardSummaryRepository extends JpaRepository<DashboardSummary, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DashboardSummary> findForUpdateById(Long id);
+}
@@ -0,0 +1,28 @@
+package com.example.billing.repository;
+
+import com.example.billing.dto.BillRequest;
+import com.example.billing.model.MeterReading;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MeterReadingRepository extends JpaRepository<MeterReading, Long> {
+
+    @Query("select r.customerId from MeterReading r where r.period = :period and r.customerId in :customerIds")
+    List<Long> findCustomerIdsWithReading(@Param("period") String period,
+                                          @Param("customerIds") Collection<Long> customerIds);
+
+    /** Readings in a customer id range [lowId, highId) that have no bill for the period yet. */
+    @Query("select new com.example.billing.dto.BillRequest(r.customerId, r.unitsConsumed) from MeterReading r " +
+           "where r.period = :period and r.customerId >= :lowId and r.customerId < :highId " +
+           "and not exists (select 1 from Bill b where b.customer.id = r.customerId and b.billingPeriod = :period) " +
+           "and not exists (select 1 from ArchivedBill a where a.customerId = r.customerId and a.billingPeriod = :period) " +
+           "order by r.customerId")
+    List<BillRequest> findUnbilled(@Param("period") String period,
+                                   @Param("lowId") long lowId, @Param("highId") long highId);
+}
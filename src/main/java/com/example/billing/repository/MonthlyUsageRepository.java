@@ -0,0 +1,19 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.MonthlyUsage;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MonthlyUsageRepository extends JpaRepository<MonthlyUsage, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MonthlyUsage> findForUpdateByPeriod(String period);
+
+    List<MonthlyUsage> findAllByOrderByPeriodAsc();
+}
@@ -0,0 +1,50 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the next due events in delivery order. Rows locked by another dispatcher are
+     * skipped (lock timeout -2 = SKIP LOCKED), so several nodes can drain the same outbox.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.status = :status " +
+           "and e.nextAttemptAt <= :now order by e.nextAttemptAt, e.id")
+    List<OutboxEvent> findDueForUpdate(@Param("status") OutboxEvent.Status status,
+                                       @Param("now") LocalDateTime now, Limit limit);
+
+    default List<OutboxEvent> claimDue(LocalDateTime now, Limit limit) {
+        return findDueForUpdate(OutboxEvent.Status.PENDING, now, limit);
+    }
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = :status and e.processedAt < :before")
+    int deleteByStatusProcessedBefore(@Param("status") OutboxEvent.Status status, @Param("before") LocalDateTime before);
+
+    interface StatusCount {
+        OutboxEvent.Status getStatus();
+        long getEvents();
+    }
+
+    @Query("select e.status as status, count(e) as events from OutboxEvent e group by e.status")
+    List<StatusCount> countByStatus();
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.status = :status")
+    LocalDateTime oldestCreatedAt(@Param("status") OutboxEvent.Status status);
+}
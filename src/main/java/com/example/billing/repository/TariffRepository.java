@@ -0,0 +1,15 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.Tariff;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TariffRepository extends JpaRepository<Tariff, Long> {
+
+    @Query("select distinct t from Tariff t left join fetch t.slabs order by t.effectiveFrom, t.id")
+    List<Tariff> findAllWithSlabs();
+}
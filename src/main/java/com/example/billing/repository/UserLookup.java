@@ -0,0 +1,12 @@
+package com.example.billing.repository;
+
+import com.example.billing.model.User;
+
+import java.util.Optional;
+
+/** UserRepository fragment: lookups by natural id, served from the second-level cache. */
+public interface UserLookup {
+
+    /** The user with this username; no SQL when the username and the user are cached. */
+    Optional<User> loadByUsername(String username);
+}
@@ -1,18 +1,50 @@
 package com.example.billing.service;
 
+import com.example.billing.config.EntityCacheConfig;
+import com.example.billing.dto.BillBatchResult;
+import com.example.billing.dto.BillCursor;
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillRequest;
+import com.example.billing.dto.BillView;
+import com.example.billing.dto.CursorPage;
+import com.example.billing.dto.CustomerProfile;
 import com.example.billing.exception.ResourceNotFoundException;
 import com.example.billing.model.Bill;
 import com.example.billing.model.Customer;
+import com.example.billing.model.CustomerSummary;
+import com.example.billing.model.OutboxEvent;
 import com.example.billing.model.Role;
+import com.example.billing.outbox.Outbox;
+import com.example.billing.repository.BillBatchRepository;
 import com.example.billing.repository.BillRepository;
 import com.example.billing.repository.CustomerRepository;
+import com.example.billing.repository.OutboxEventRepository;
+import com.example.billing.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.servlet.http.HttpSession;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.cache.CacheManager;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -21,62 +53,337 @@ public class AdminService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private BillRepository billRepository;
 
+    @Autowired
+    private BillBatchRepository billBatchRepository;
+
+    @Autowired
+    private BillArchiveService billArchiveService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private ConsumptionStatsService consumptionStatsService;
+
+    @Autowired
+    private TariffService tariffService;
+
+    @Autowired
+    private CustomerProfileCache customerProfileCache;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager entityCacheManager;
+
+    @Autowired
+    private LiveUpdates liveUpdates;
+
+    /** Upper bound on entries accepted by one batch bill request. */
+    private static final int MAX_BATCH_ENTRIES = 100_000;
+
+    /** Upper bound on ids accepted by one bulk delete; keeps its IN lists to one batch. */
+    private static final int MAX_BULK_DELETE = BillBatchRepository.BATCH_SIZE;
+
     // ---- Customers ----
 
     public Customer addCustomer(HttpSession session, String name, String email, String address) {
         SessionHelper.requireRole(session, Role.ADMIN);
-        if (customerRepository.existsByEmail(email)) {
+        if (customerRepository.loadByEmail(email).isPresent()) {
             throw new IllegalArgumentException("Email already registered: " + email);
         }
-        Customer customer = new Customer(name, email, address, null);
-        return customerRepository.save(customer);
+        Customer customer = customerRepository.save(new Customer(name, email, address, null));
+        statsService.recordCustomerAdded(customer.getId());
+        customerSearchIndex.putAfterCommit(customer);
+        liveUpdates.customerAdded(customer);
+        return customer;
+    }
+
+    /** Typeahead over name, email, address and id prefix; served from memory, no transaction. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CustomerProfile> searchCustomers(HttpSession session, String query, Integer limit) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        int size = limit == null ? CustomerSearchIndex.DEFAULT_LIMIT
+                : Math.max(1, Math.min(limit, CustomerSearchIndex.MAX_LIMIT));
+        return customerSearchIndex.search(query, size);
     }
 
     @Transactional(readOnly = true)
-    public List<Customer> getAllCustomers(HttpSession session) {
+    public CursorPage<Customer> getAllCustomers(HttpSession session, String cursor, Integer limit) {
         SessionHelper.requireRole(session, Role.ADMIN);
-        return customerRepository.findAll();
+        int size = CursorPage.clampLimit(limit);
+        long afterId;
+        try {
+            afterId = cursor == null || cursor.isBlank() ? 0L : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        List<Customer> rows = customerRepository.findByIdGreaterThanAndDeletedAtIsNullOrderByIdAsc(afterId, Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, size);
+        }
+        List<Customer> items = rows.subList(0, size);
+        return new CursorPage<>(items, String.valueOf(items.get(size - 1).getId()), size);
     }
 
     public void deleteCustomer(HttpSession session, Long id) {
         SessionHelper.requireRole(session, Role.ADMIN);
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
-        customerRepository.delete(customer);
+        if (markCustomersDeleted(List.of(id)).isEmpty()) {
+            throw new ResourceNotFoundException("Customer not found with id: " + id);
+        }
+    }
+
+    /** Deletes up to MAX_BULK_DELETE customers at once; unknown or already deleted ids are reported. */
+    public Map<String, Object> deleteCustomers(HttpSession session, List<Long> ids) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one customer id is required.");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > MAX_BULK_DELETE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_DELETE + " customers can be deleted at once.");
+        }
+        Set<Long> deleted = markCustomersDeleted(requested);
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : requested) {
+            if (!deleted.contains(id)) notFound.add(id);
+        }
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("deleted",  deleted.size());
+        res.put("notFound", notFound);
+        return res;
+    }
+
+    /**
+     * Soft delete with a fixed number of statements, however much history the customers
+     * have: flag the rows (detaching their logins), take them out of the summaries, delete
+     * the linked users. CustomerPurgeJob removes bills, readings and rows in the background.
+     * Returns the ids that were deleted.
+     */
+    private Set<Long> markCustomersDeleted(Collection<Long> ids) {
+        List<CustomerRepository.Deletion> rows = customerRepository.findForDeletion(ids);
+        if (rows.isEmpty()) return Set.of();
+        Set<Long> customerIds = new HashSet<>();
+        List<Long> userIds = new ArrayList<>();
+        for (CustomerRepository.Deletion row : rows) {
+            customerIds.add(row.getId());
+            if (row.getUserId() != null) userIds.add(row.getUserId());
+        }
+        // Locks the rows first: bill writers share-lock them, so this waits for bills in flight
+        customerRepository.markDeleted(customerIds, LocalDateTime.now());
+        statsService.recordCustomersDeleted(customerIds);
+        if (!userIds.isEmpty()) userRepository.deleteAllByIdInBatch(userIds);
+
+        // after commit so a concurrent read cannot re-cache a deleted profile
+        AfterCommit.run(() -> {
+            userIds.forEach(customerProfileCache::evictUser);
+            customerIds.forEach(customerSearchIndex::remove);
+        });
+        liveUpdates.customersDeleted(customerIds);
+        return customerIds;
     }
 
     // ---- Bills ----
 
     public Bill generateBill(HttpSession session, Long customerId, Double unitsConsumed) {
         SessionHelper.requireRole(session, Role.ADMIN);
-        Customer customer = customerRepository.findById(customerId)
+        String unitsError = CompiledTariff.unitsError(unitsConsumed);
+        if (unitsError != null) throw new IllegalArgumentException(unitsError + ".");
+        Customer customer = customerRepository.findActiveForShare(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
 
+        LocalDate today = LocalDate.now();
+        CompiledTariff tariff = tariffService.forDate(today);
         Bill bill = new Bill();
         bill.setCustomer(customer);
         bill.setUnitsConsumed(unitsConsumed);
-        bill.setAmount(calculateAmount(unitsConsumed));
-        bill.setBillDate(LocalDate.now());
-        return billRepository.save(bill);
+        bill.setAmount(tariff.amount(unitsConsumed));
+        bill.setBillDate(today);
+        bill.setTariffVersion(tariff.version());
+        billRepository.save(bill);
+        statsService.recordBill(bill);
+        consumptionStatsService.recordBill(bill);
+        outbox.billGenerated(bill);
+        liveUpdates.billGenerated(bill);
+        return bill;
+    }
+
+    /**
+     * Generates many bills in one transaction. Customer ids are checked with set-based
+     * lookups and bills are inserted in JDBC batches; invalid entries are reported per row
+     * and do not stop the rest of the batch.
+     */
+    public Map<String, Object> generateBills(HttpSession session, List<BillRequest> entries) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("At least one bill entry is required.");
+        }
+        if (entries.size() > MAX_BATCH_ENTRIES) {
+            throw new IllegalArgumentException("A batch may contain at most " + MAX_BATCH_ENTRIES + " entries.");
+        }
+        List<BillBatchResult> results = createBills(entries, null);
+        long created = results.stream().filter(r -> BillBatchResult.CREATED.equals(r.status())).count();
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("created",  created);
+        res.put("rejected", results.size() - created);
+        res.put("results",  results);
+        return res;
     }
 
+    /**
+     * Validates, prices and inserts bill entries; result i describes entries[i].
+     * billingPeriod tags bills from a billing run (null for ad-hoc bills).
+     * Callers are responsible for the role check and for the surrounding transaction.
+     */
+    List<BillBatchResult> createBills(List<BillRequest> entries, String billingPeriod) {
+        return createBills(entries, billingPeriod, LocalDate.now(), true);
+    }
+
+    /**
+     * createBills for bills dated billDate. With globalTotals false only the customer
+     * summaries are updated, and the caller adds the bills to the global and monthly
+     * totals later (StatsService.addBills).
+     */
+    List<BillBatchResult> createBills(List<BillRequest> entries, String billingPeriod,
+                                      LocalDate billDate, boolean globalTotals) {
+
+        Set<Long> requestedIds = new HashSet<>();
+        for (BillRequest e : entries) {
+            if (e != null && e.customerId() != null) requestedIds.add(e.customerId());
+        }
+        Set<Long> knownIds = new HashSet<>(requestedIds.size());
+        List<Long> idList = new ArrayList<>(requestedIds);
+        for (int i = 0; i < idList.size(); i += BillBatchRepository.BATCH_SIZE) {
+            knownIds.addAll(customerRepository.findExistingIds(
+                    idList.subList(i, Math.min(i + BillBatchRepository.BATCH_SIZE, idList.size()))));
+        }
+
+        CompiledTariff tariff = tariffService.forDate(billDate);
+        int n = entries.size();
+        BillBatchResult[] results = new BillBatchResult[n];
+        int[] rowIndex = new int[n];
+        long[] customerIds = new long[n];
+        double[] units = new double[n];
+        double[] amounts = new double[n];
+        int accepted = 0;
+        for (int i = 0; i < n; i++) {
+            BillRequest e = entries.get(i);
+            Long customerId = e == null ? null : e.customerId();
+            String error = customerId == null || e.unitsConsumed() == null
+                    ? "customerId and unitsConsumed are required numeric fields."
+                    : CompiledTariff.unitsError(e.unitsConsumed());
+            if (error == null && !knownIds.contains(customerId)) {
+                error = "Customer not found with id: " + customerId;
+            }
+            if (error != null) {
+                results[i] = BillBatchResult.rejected(i, customerId, error);
+            } else {
+                rowIndex[accepted]    = i;
+                customerIds[accepted] = customerId;
+                units[accepted]       = e.unitsConsumed();
+                amounts[accepted]     = tariff.amount(e.unitsConsumed());
+                accepted++;
+            }
+        }
+
+        long[] billIds = billBatchRepository.insertAll(customerIds, units, amounts, billDate,
+                tariff.version(), billingPeriod, accepted);
+        Map<Long, CustomerSummary> deltas = new HashMap<>();
+        for (int k = 0; k < accepted; k++) {
+            results[rowIndex[k]] = BillBatchResult.created(rowIndex[k], customerIds[k], billIds[k], amounts[k]);
+            deltas.computeIfAbsent(customerIds[k], CustomerSummary::new).add(1, units[k], amounts[k]);
+        }
+        if (globalTotals) statsService.recordBills(billDate, deltas.values());
+        else statsService.recordCustomerBills(deltas.values());
+        consumptionStatsService.recordBills(billIds, customerIds, units, billDate, accepted);
+        outbox.billsGenerated(billIds, customerIds, units, amounts, billDate, billingPeriod, accepted);
+        liveUpdates.billsGenerated(billIds, customerIds, units, amounts, billDate, billingPeriod, accepted);
+        return Arrays.asList(results);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BillView> getAllBills(HttpSession session, BillFilter filter, String cursor, Integer limit) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        return billArchiveService.findPage(filter, BillCursor.parse(cursor), CursorPage.clampLimit(limit));
+    }
+
+    // ---- Dashboard ----
+
     @Transactional(readOnly = true)
-    public List<Bill> getAllBills(HttpSession session) {
+    public Map<String, Object> getStats(HttpSession session) {
         SessionHelper.requireRole(session, Role.ADMIN);
-        return billRepository.findAll();
+        return statsService.adminSnapshot();
     }
 
-    // ---- Billing rate logic ----
-    private double calculateAmount(double units) {
-        if (units <= 100) {
-            return units * 3.50;
-        } else if (units <= 300) {
-            return (100 * 3.50) + ((units - 100) * 5.00);
-        } else {
-            return (100 * 3.50) + (200 * 5.00) + ((units - 300) * 7.00);
+    /** Live dashboard events (bills, customers, running totals) as server-sent events. */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SseEmitter subscribeEvents(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        return liveUpdates.subscribeAdmin();
+    }
+
+    // ---- Caches ----
+
+    public Map<String, Object> getCacheStats(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("customerProfiles", customerProfileCache.stats());
+        res.put("entities", entityCacheStats());
+        return res;
+    }
+
+    /** Second-level cache regions (entities and natural ids) from Hibernate's statistics. */
+    private Map<String, Object> entityCacheStats() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> res = new LinkedHashMap<>();
+        for (String region : EntityCacheConfig.REGIONS) {
+            CacheRegionStatistics r = stats.getDomainDataRegionStatistics(region);
+            long hits = r.getHitCount();
+            long misses = r.getMissCount();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("size",    EntityCacheConfig.regionSize(entityCacheManager, region));
+            m.put("hits",    hits);
+            m.put("misses",  misses);
+            m.put("puts",    r.getPutCount());
+            m.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            res.put(region, m);
+        }
+        return res;
+    }
+
+    // ---- Outbox ----
+
+    /** Event counts by status and the age of the oldest undelivered event. */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getOutboxStats(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        Map<String, Object> counts = new LinkedHashMap<>();
+        for (OutboxEvent.Status status : OutboxEvent.Status.values()) counts.put(status.name(), 0L);
+        for (OutboxEventRepository.StatusCount c : outboxEventRepository.countByStatus()) {
+            counts.put(c.getStatus().name(), c.getEvents());
         }
+        LocalDateTime oldest = outboxEventRepository.oldestCreatedAt(OutboxEvent.Status.PENDING);
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("events", counts);
+        res.put("oldestPendingAt", oldest == null ? null : oldest.toString());
+        return res;
     }
 }
@@ -24,6 +24,15 @@ public class AuthService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private LiveUpdates liveUpdates;
+
     /**
      * Register a new user.
      * If role=CUSTOMER, a Customer record is also created automatically.
@@ -31,7 +40,7 @@ public class AuthService {
     public Map<String, Object> register(String username, String password, String roleName,
                                         String name, String email, String address) {
 
-        if (userRepository.existsByUsername(username)) {
+        if (userRepository.loadByUsername(username).isPresent()) {
             throw new IllegalArgumentException("Username already taken: " + username);
         }
 
@@ -50,10 +59,13 @@ public class AuthService {
             if (name == null || name.isBlank()) throw new IllegalArgumentException("Name is required for CUSTOMER registration.");
             if (email == null || email.isBlank()) throw new IllegalArgumentException("Email is required for CUSTOMER registration.");
             if (address == null || address.isBlank()) throw new IllegalArgumentException("Address is required for CUSTOMER registration.");
-            if (customerRepository.existsByEmail(email)) throw new IllegalArgumentException("Email already registered: " + email);
+            if (customerRepository.loadByEmail(email).isPresent()) throw new IllegalArgumentException("Email already registered: " + email);
 
             Customer customer = new Customer(name, email, address, user);
             customerRepository.save(customer);
+            statsService.recordCustomerAdded(customer.getId());
+            customerSearchIndex.putAfterCommit(customer);
+            liveUpdates.customerAdded(customer);
         }
 
         Map<String, Object> res = new HashMap<>();
@@ -65,9 +77,10 @@ public class AuthService {
 
     /**
      * Login: validate credentials, populate HttpSession.
+     * In token mode the session is a TokenSession and the signed token is also returned.
      */
     public Map<String, Object> login(String username, String password, HttpSession session) {
-        Optional<User> opt = userRepository.findByUsername(username);
+        Optional<User> opt = userRepository.loadByUsername(username);
         if (opt.isEmpty() || !opt.get().getPassword().equals(password)) {
             throw new IllegalArgumentException("Invalid username or password.");
         }
@@ -81,6 +94,9 @@ public class AuthService {
         res.put("message", "Login successful");
         res.put("username", user.getUsername());
         res.put("role", user.getRole().name());
+        if (session instanceof TokenSession tokenSession) {
+            res.put("token", tokenSession.issue());
+        }
         return res;
     }
 
@@ -0,0 +1,232 @@
+package com.example.billing.service;
+
+import com.example.billing.config.BackgroundThreads;
+import com.example.billing.dto.BillCursor;
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillView;
+import com.example.billing.dto.CursorPage;
+import com.example.billing.model.Role;
+import com.example.billing.repository.ArchivedBillRepository;
+import com.example.billing.repository.BillRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hot/cold tiering of bills. A background job moves bills older than the horizon from
+ * bills to bills_archive in chunks (copy + delete in one transaction, ids preserved).
+ * Before moving it raises the watermark in bill_archive_state, so every archived bill is
+ * older than the watermark.
+ * <p>
+ * Listings read the hot table first and only query the archive when the page could
+ * reach below the watermark; the two sorted streams are merged, so keyset cursors and
+ * results are the same as with a single table. Summaries are untouched: archived bills
+ * still count.
+ * <p>
+ * Each node holds the watermark in memory and re-reads it every
+ * billing.archive.watermark-refresh-ms. A pass that raises it waits that long before
+ * moving bills, so no node lists with a watermark below bills that are already archived.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BillArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(BillArchiveService.class);
+
+    private static final Comparator<BillView> NEWEST_FIRST =
+            Comparator.comparing(BillView::billDate).thenComparing(BillView::id).reversed();
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private ArchivedBillRepository archivedBillRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    @Value("${billing.archive.enabled:true}")
+    private boolean enabled;
+
+    /** Bills dated before the first day of (current month - horizon) are archived. */
+    @Value("${billing.archive.horizon-months:24}")
+    private int horizonMonths;
+
+    @Value("${billing.archive.interval:6h}")
+    private Duration interval;
+
+    @Value("${billing.archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${billing.archive.watermark-refresh-ms:30000}")
+    private long watermarkRefreshMs;
+
+    /** Every archived bill is dated before this; see refreshWatermark. */
+    private volatile LocalDate archivedBefore;
+
+    private ScheduledExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun;
+
+    @PostConstruct
+    void start() {
+        refreshWatermark();
+        if (!enabled) return;
+        executor = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("bill-archive"));
+        executor.scheduleWithFixedDelay(this::archive, Duration.ofMinutes(1).toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    // ---- Listings ----
+
+    /** Keyset page over hot and archived bills, newest first. */
+    public CursorPage<BillView> findPage(BillFilter filter, BillCursor after, int limit) {
+        LocalDate archivedBefore = this.archivedBefore;
+        List<BillView> rows = billRepository.findPageRows(filter, after, limit + 1);
+        boolean pageAboveWatermark = rows.size() > limit && !rows.get(limit).billDate().isBefore(archivedBefore);
+        boolean rangeAboveWatermark = filter.from() != null && !filter.from().isBefore(archivedBefore);
+        if (!pageAboveWatermark && !rangeAboveWatermark) {
+            List<BillView> archived = archivedBillRepository.findPageRows(filter, after, limit + 1);
+            if (!archived.isEmpty()) {
+                List<BillView> merged = new ArrayList<>(rows.size() + archived.size());
+                merged.addAll(rows);
+                merged.addAll(archived);
+                merged.sort(NEWEST_FIRST);
+                rows = merged.size() > limit + 1 ? merged.subList(0, limit + 1) : merged;
+            }
+        }
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null, limit);
+        }
+        List<BillView> items = rows.subList(0, limit);
+        BillView last = items.get(limit - 1);
+        return new CursorPage<>(items, new BillCursor(last.billDate(), last.id()).encode(), limit);
+    }
+
+    /** Every archived bill is dated before this. Held in memory, no query. */
+    public LocalDate archivedBefore() {
+        return archivedBefore;
+    }
+
+    /** Re-reads the watermark from the primary, picking up passes run by other nodes. */
+    @Scheduled(fixedDelayString = "${billing.archive.watermark-refresh-ms:30000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void refreshWatermark() {
+        archivedBefore = jdbcTemplate.queryForObject(
+                "select archived_before from bill_archive_state where id = 1", LocalDate.class);
+    }
+
+    // ---- Archival ----
+
+    public Map<String, Object> getStatus(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("enabled",        enabled);
+        res.put("horizonMonths",  horizonMonths);
+        res.put("archivedBefore", archivedBefore().toString());
+        res.put("running",        running.get());
+        res.put("lastRun",        lastRun);
+        return res;
+    }
+
+    /** Starts an archival pass now unless one is already running. */
+    public Map<String, Object> runNow(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        if (executor == null) throw new IllegalArgumentException("Archival is disabled (billing.archive.enabled=false).");
+        executor.execute(this::archive);
+        return getStatus(session);
+    }
+
+    private void archive() {
+        if (!running.compareAndSet(false, true)) return;
+        LocalDateTime started = LocalDateTime.now();
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(horizonMonths);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long moved = 0;
+        try {
+            Integer raised = tx.execute(s -> jdbcTemplate.update(
+                    "update bill_archive_state set archived_before = ? where id = 1 and archived_before < ?",
+                    Date.valueOf(cutoff), Date.valueOf(cutoff)));
+            refreshWatermark();
+            if (raised != null && raised > 0) {
+                // until every node has re-read the watermark, none of them may miss a moved bill
+                Thread.sleep(watermarkRefreshMs);
+            }
+            int chunk;
+            do {
+                if (Thread.currentThread().isInterrupted()) break;
+                chunk = tx.execute(s -> moveChunk(cutoff));
+                moved += chunk;
+            } while (chunk == chunkSize);
+            if (moved > 0) log.info("Archived {} bills dated before {} in {} ms", moved, cutoff,
+                    Duration.between(started, LocalDateTime.now()).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // moved chunks are committed; the rest is picked up on the next pass
+            log.warn("Bill archival failed after {} bills: {}", moved, e.toString());
+        } finally {
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("startedAt",  started.toString());
+            run.put("cutoff",     cutoff.toString());
+            run.put("billsMoved", moved);
+            run.put("durationMs", Duration.between(started, LocalDateTime.now()).toMillis());
+            lastRun = run;
+            running.set(false);
+        }
+    }
+
+    /** Copies the oldest chunk below the cutoff into the archive and deletes it from bills. */
+    private int moveChunk(LocalDate cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select id from bills where bill_date < ? order by bill_date, id limit ?",
+                Long.class, Date.valueOf(cutoff), chunkSize);
+        if (ids.isEmpty()) return 0;
+        Map<String, Object> params = Map.of("ids", ids);
+        namedJdbcTemplate.update(
+                "insert into bills_archive (id, customer_id, units_consumed, amount, bill_date, tariff_version, billing_period) " +
+                "select id, customer_id, units_consumed, amount, bill_date, tariff_version, billing_period " +
+                "from bills where id in (:ids)", params);
+        namedJdbcTemplate.update("delete from bills where id in (:ids)", params);
+        return ids.size();
+    }
+}
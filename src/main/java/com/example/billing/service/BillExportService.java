@@ -0,0 +1,127 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.BillFilter;
+import com.example.billing.model.Role;
+import com.example.billing.repository.BillExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full bill exports as CSV or NDJSON, optionally gzip-compressed. prepare() does the
+ * authorization and argument checks so errors still get a normal JSON response; the
+ * returned Export then streams straight from the database cursor to the output stream.
+ */
+@Service
+public class BillExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private BillExportRepository billExportRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public final class Export {
+        private final boolean csv;
+        private final boolean gzip;
+        private final BillFilter filter;
+
+        private Export(boolean csv, boolean gzip, BillFilter filter) {
+            this.csv = csv;
+            this.gzip = gzip;
+            this.filter = filter;
+        }
+
+        public String contentType() {
+            return gzip ? "application/gzip" : csv ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8";
+        }
+
+        public String filename() {
+            return "bills" + (filter.from() != null ? "-from-" + filter.from() : "")
+                    + (filter.to() != null ? "-to-" + filter.to() : "")
+                    + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        }
+
+        /** Streams every matching bill; returns the row count. Does not close out. */
+        public long writeTo(OutputStream out) throws IOException {
+            GZIPOutputStream zip = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(zip != null ? zip : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            long rows = csv ? writeCsv(writer) : writeNdjson(writer);
+            writer.flush();
+            if (zip != null) zip.finish();
+            return rows;
+        }
+
+        private long writeCsv(Writer w) throws IOException {
+            w.write("id,customerId,customerName,billDate,unitsConsumed,amount,tariffVersion,billingPeriod\n");
+            return billExportRepository.forEach(filter.customerId(), filter.from(), filter.to(), r -> {
+                w.write(Long.toString(r.id));                 w.write(',');
+                w.write(Long.toString(r.customerId));         w.write(',');
+                w.write(csvField(r.customerName));            w.write(',');
+                w.write(r.billDate.toString());               w.write(',');
+                w.write(Double.toString(r.unitsConsumed));    w.write(',');
+                w.write(Double.toString(r.amount));           w.write(',');
+                if (r.tariffVersion != null) w.write(Long.toString(r.tariffVersion));
+                w.write(',');
+                if (r.billingPeriod != null) w.write(r.billingPeriod);
+                w.write('\n');
+            });
+        }
+
+        private long writeNdjson(Writer w) throws IOException {
+            JsonGenerator gen = objectMapper.getFactory().createGenerator(w);
+            gen.setRootValueSeparator(null);
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long rows = billExportRepository.forEach(filter.customerId(), filter.from(), filter.to(), r -> {
+                gen.writeStartObject();
+                gen.writeNumberField("id", r.id);
+                gen.writeNumberField("customerId", r.customerId);
+                gen.writeStringField("customerName", r.customerName);
+                gen.writeStringField("billDate", r.billDate.toString());
+                gen.writeNumberField("unitsConsumed", r.unitsConsumed);
+                gen.writeNumberField("amount", r.amount);
+                if (r.tariffVersion != null) gen.writeNumberField("tariffVersion", r.tariffVersion);
+                else gen.writeNullField("tariffVersion");
+                gen.writeStringField("billingPeriod", r.billingPeriod);
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+            });
+            gen.flush();
+            return rows;
+        }
+    }
+
+    /** format is csv (default) or ndjson. */
+    public Export prepare(HttpSession session, String format, boolean gzip, BillFilter filter) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        String f = format == null ? "csv" : format.toLowerCase();
+        if (!f.equals("csv") && !f.equals("ndjson")) {
+            throw new IllegalArgumentException("format must be csv or ndjson.");
+        }
+        if (filter.minAmount() != null || filter.maxAmount() != null) {
+            throw new IllegalArgumentException("Exports filter by customerId, from and to only.");
+        }
+        return new Export(f.equals("csv"), gzip, filter);
+    }
+
+    private static String csvField(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.billing.service;
+
+import com.example.billing.config.BackgroundThreads;
+import com.example.billing.dto.BillBatchResult;
+import com.example.billing.dto.BillRequest;
+import com.example.billing.exception.ResourceNotFoundException;
+import com.example.billing.model.Role;
+import com.example.billing.repository.BillBatchRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams meter-reading files (CSV or NDJSON) into bills.
+ *
+ * The request thread reads and parses the body line by line and hands fixed-size chunks
+ * through a small bounded queue to a writer thread, which validates, prices and
+ * batch-inserts each chunk in its own transaction via AdminService.createBills.
+ * At most QUEUE_CAPACITY chunks are in flight, so memory stays flat for any file size.
+ */
+@Service
+public class BillImportService {
+
+    private static final int CHUNK_SIZE        = BillBatchRepository.BATCH_SIZE;
+    private static final int QUEUE_CAPACITY    = 4;
+    private static final int MAX_CONCURRENT    = 2;
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private static final Chunk END = new Chunk(new long[0], List.of());
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    private ExecutorService writers;
+
+    /** Most recent jobs, oldest evicted first. */
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportJob> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    };
+
+    private record Chunk(long[] lines, List<BillRequest> entries) {}
+
+    /**
+     * Imports the request body. contentType selects the format: text/csv
+     * (customerId,unitsConsumed, optionally under a header line naming those two columns)
+     * or application/x-ndjson.
+     * Each chunk commits independently; the returned job reports how far a failed import got.
+     */
+    public Map<String, Object> importReadings(HttpSession session, String contentType, InputStream body) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        boolean csv = isCsv(contentType);
+        ImportJob job = new ImportJob(csv ? "csv" : "ndjson");
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Future<?> writer = writers.submit(() -> {
+            drain(queue, job);
+            return null;
+        });
+        String uploadFailure = null;
+        RuntimeException parseError = null;
+        try {
+            parse(body, csv, job, queue, writer);
+        } catch (IOException e) {
+            uploadFailure = "Upload interrupted: " + e.getMessage();
+        } catch (RuntimeException e) {
+            // anything but a rejected line is a bug; fail the job rather than leave it RUNNING
+            parseError = e;
+            uploadFailure = "Import failed: " + e;
+        } finally {
+            hand(queue, END, writer);
+        }
+
+        try {
+            writer.get();
+            job.finish(uploadFailure == null ? ImportJob.State.COMPLETED : ImportJob.State.FAILED, uploadFailure);
+        } catch (ExecutionException e) {
+            job.finish(ImportJob.State.FAILED, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ImportJob.State.FAILED, "Interrupted");
+        }
+        if (parseError != null) throw parseError;
+        return job.toMap();
+    }
+
+    public List<Map<String, Object>> listJobs(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        List<Map<String, Object>> res = new ArrayList<>();
+        synchronized (jobs) {
+            for (ImportJob job : jobs.values()) res.add(job.toMap());
+        }
+        return res;
+    }
+
+    public Map<String, Object> getJob(HttpSession session, String id) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        ImportJob job;
+        synchronized (jobs) {
+            job = jobs.get(id);
+        }
+        if (job == null) throw new ResourceNotFoundException("Import job not found with id: " + id);
+        return job.toMap();
+    }
+
+    @PostConstruct
+    void start() {
+        writers = Executors.newFixedThreadPool(MAX_CONCURRENT, backgroundThreads.factory("bill-import"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+    }
+
+    // ---- Parse stage (request thread) ----
+
+    private void parse(InputStream body, boolean csv, ImportJob job,
+                       BlockingQueue<Chunk> queue, Future<?> writer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        long[] lines = new long[CHUNK_SIZE];
+        List<BillRequest> entries = new ArrayList<>(CHUNK_SIZE);
+        boolean first = true;
+        long lineNo = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) continue;
+            job.lineRead();
+            if (csv && first) {
+                first = false;
+                if (isCsvHeader(line)) continue;
+            }
+
+            BillRequest entry;
+            try {
+                entry = csv ? parseCsv(line) : parseJson(line);
+            } catch (IllegalArgumentException e) {
+                job.rejected(lineNo, e.getMessage());
+                continue;
+            }
+            lines[entries.size()] = lineNo;
+            entries.add(entry);
+            if (entries.size() == CHUNK_SIZE) {
+                if (!hand(queue, new Chunk(lines, entries), writer)) return;
+                lines = new long[CHUNK_SIZE];
+                entries = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!entries.isEmpty()) hand(queue, new Chunk(lines, entries), writer);
+    }
+
+    /** Blocks while the queue is full; gives up (returns false) once the writer has stopped. */
+    private static boolean hand(BlockingQueue<Chunk> queue, Chunk chunk, Future<?> writer) {
+        try {
+            while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (writer.isDone()) return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.cancel(true);
+            return false;
+        }
+    }
+
+    private static boolean isCsv(String contentType) {
+        String type = contentType == null ? "" : contentType.toLowerCase();
+        if (type.startsWith("text/csv")) return true;
+        if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) return false;
+        throw new IllegalArgumentException("Send the file as Content-Type text/csv or application/x-ndjson.");
+    }
+
+    /**
+     * Only the expected column names make the first line a header (case, spaces, quotes and a
+     * byte order mark ignored). Anything else is parsed as data, so a malformed first reading
+     * is reported as a line 1 error instead of being skipped.
+     */
+    private static boolean isCsvHeader(String line) {
+        String[] fields = line.split(",", -1);
+        return fields.length == 2
+                && headerName(fields[0]).equals("customerid")
+                && headerName(fields[1]).equals("unitsconsumed");
+    }
+
+    private static String headerName(String field) {
+        return field.replace("\uFEFF", "").replace("\"", "").trim().toLowerCase();
+    }
+
+    private static BillRequest parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 2) {
+            throw new IllegalArgumentException("Expected 2 fields (customerId,unitsConsumed) but found " + fields.length);
+        }
+        BillRequest entry;
+        try {
+            entry = new BillRequest(Long.parseLong(fields[0].trim()), Double.parseDouble(fields[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("customerId and unitsConsumed are required numeric fields.");
+        }
+        return requireFinite(entry);
+    }
+
+    private BillRequest parseJson(String line) {
+        try {
+            return requireFinite(objectMapper.readValue(line, BillRequest.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON line.");
+        }
+    }
+
+    /**
+     * Both parsers accept NaN and Infinity ("NaN" in CSV, "NaN" as a JSON string). Such a
+     * value is rejected with its line here; in a chunk insert it would fail the whole batch.
+     */
+    private static BillRequest requireFinite(BillRequest entry) {
+        if (entry.unitsConsumed() != null && !Double.isFinite(entry.unitsConsumed())) {
+            throw new IllegalArgumentException("Units must be a finite number");
+        }
+        return entry;
+    }
+
+    // ---- Validate / tariff / insert stage (writer thread) ----
+
+    private void drain(BlockingQueue<Chunk> queue, ImportJob job) throws InterruptedException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        while (true) {
+            Chunk chunk = queue.take();
+            if (chunk == END) return;
+            List<BillBatchResult> results = tx.execute(status -> adminService.createBills(chunk.entries(), null));
+            long created = 0;
+            for (BillBatchResult r : results) {
+                if (BillBatchResult.CREATED.equals(r.status())) created++;
+                else job.rejected(chunk.lines()[r.index()], r.error());
+            }
+            job.imported(created);
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.billing.service;
+
+import com.example.billing.config.BackgroundThreads;
+import com.example.billing.dto.BillBatchResult;
+import com.example.billing.dto.BillRequest;
+import com.example.billing.exception.ResourceNotFoundException;
+import com.example.billing.model.BillingRun;
+import com.example.billing.model.BillingRunPartition;
+import com.example.billing.model.MeterReading;
+import com.example.billing.model.Role;
+import com.example.billing.repository.BillingRunPartitionRepository;
+import com.example.billing.repository.BillingRunRepository;
+import com.example.billing.repository.CustomerRepository;
+import com.example.billing.repository.MeterReadingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Monthly billing runs. A run splits the customer id space into fixed-size ranges and bills
+ * each range from its staged meter readings in one transaction, which also checkpoints the
+ * partition. Partitions run on a pool kept smaller than the connection pool. A run that was
+ * interrupted (crash, redeploy) is resumed at startup and only re-processes unfinished
+ * partitions, plus new ones for customers added since. A run with a failed partition stays
+ * RUNNING and is retried by starting it again. Starting a run locks the period's
+ * billing_run_periods row, so concurrent starts for one period get the same run.
+ *
+ * Every node resumes the RUNNING runs at startup, and a run can be started through any
+ * node, so several nodes may launch the same run. Each partition is claimed with
+ * SELECT ... FOR UPDATE SKIP LOCKED in the transaction that bills it: a node skips the
+ * partitions another node is billing or has finished, and the nodes share out the rest.
+ * The claim ends with the transaction, so a node that dies mid-partition leaves it to the
+ * next launch.
+ *
+ * Partitions only update the customer summaries. Their global and monthly totals are kept
+ * on the partition row and merged into the dashboard summaries every
+ * billing.runs.merge-interval-ms while the run is in progress, and once more when its
+ * partitions have finished, so partitions do not queue on the global summary lock. The
+ * dashboard totals therefore trail a running run by up to one interval.
+ */
+@Service
+@Transactional
+public class BillingRunService {
+
+    private static final long PARTITION_SIZE = 1000;
+
+    @Autowired
+    private BillingRunRepository billingRunRepository;
+
+    @Autowired
+    private BillingRunPartitionRepository partitionRepository;
+
+    @Autowired
+    private MeterReadingRepository meterReadingRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private LiveUpdates liveUpdates;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    /** Leaves two connections free for request traffic. */
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    private ExecutorService workers;
+
+    private record Totals(long bills, double units, double amount) {
+        Totals plus(Totals o) {
+            return new Totals(bills + o.bills, units + o.units, amount + o.amount);
+        }
+    }
+
+    /** Progress of a run when this node last launched it; throughput and ETA count from here. */
+    private record Launch(long startedNanos, int completedPartitions, long billsCreated) {}
+
+    /** Runs currently executing on this node. */
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+
+    private final Map<Long, Launch> launches = new ConcurrentHashMap<>();
+
+    /** Last partition failure per run; the run stays RUNNING and can be restarted. */
+    private final Map<Long, String> failures = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startWorkers() {
+        workers = Executors.newFixedThreadPool(Math.max(1, connectionPoolSize - 2), backgroundThreads.factory("billing-run"));
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        workers.shutdownNow();
+    }
+
+    // ---- Meter readings ----
+
+    /**
+     * Stages readings for a period. Unknown customers and customers that already have a
+     * reading for the period are rejected per entry.
+     */
+    public Map<String, Object> submitReadings(HttpSession session, String period, List<BillRequest> readings) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        String p = parsePeriod(period);
+        if (readings == null || readings.isEmpty()) {
+            throw new IllegalArgumentException("At least one reading is required.");
+        }
+        Set<Long> ids = new HashSet<>();
+        for (BillRequest r : readings) {
+            if (r != null && r.customerId() != null) ids.add(r.customerId());
+        }
+        Set<Long> known = new HashSet<>();
+        Set<Long> taken = new HashSet<>();
+        if (!ids.isEmpty()) {
+            known.addAll(customerRepository.findExistingIds(ids));
+            taken.addAll(meterReadingRepository.findCustomerIdsWithReading(p, ids));
+        }
+
+        List<MeterReading> accepted = new ArrayList<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        for (int i = 0; i < readings.size(); i++) {
+            BillRequest r = readings.get(i);
+            String error = r == null || r.customerId() == null || r.unitsConsumed() == null
+                    ? "customerId and unitsConsumed are required numeric fields."
+                    : CompiledTariff.unitsError(r.unitsConsumed());
+            if (error == null) {
+                if (!known.contains(r.customerId())) {
+                    error = "Customer not found with id: " + r.customerId();
+                } else if (!taken.add(r.customerId())) {
+                    error = "Reading already submitted for customer " + r.customerId() + " in " + p;
+                }
+            }
+            if (error == null) {
+                accepted.add(new MeterReading(r.customerId(), p, r.unitsConsumed()));
+            } else {
+                Map<String, Object> e = new LinkedHashMap<>();
+                e.put("index", i);
+                e.put("error", error);
+                errors.add(e);
+            }
+        }
+        meterReadingRepository.saveAll(accepted);
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("period",   p);
+        res.put("accepted", accepted.size());
+        res.put("rejected", errors.size());
+        res.put("errors",   errors);
+        return res;
+    }
+
+    // ---- Runs ----
+
+    /** Starts a run for the period, or resumes the unfinished one for the same period. */
+    public Map<String, Object> startRun(HttpSession session, String period) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        String p = parsePeriod(period);
+        lockPeriod(p);
+        BillingRun run = billingRunRepository.findFirstByPeriodAndStatus(p, BillingRun.Status.RUNNING).orElse(null);
+        if (run == null) {
+            run = billingRunRepository.save(new BillingRun(p, 0));
+            addPartitions(run);
+        }
+        Long runId = run.getId();
+        AfterCommit.run(() -> launch(runId));
+        return toMap(run);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRun(HttpSession session, Long id) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        BillingRun run = billingRunRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Billing run not found with id: " + id));
+        return toMap(run);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRuns(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        List<Map<String, Object>> res = new ArrayList<>();
+        for (BillingRun run : billingRunRepository.findTop20ByOrderByIdDesc()) res.add(toMap(run));
+        return res;
+    }
+
+    /** Picks up runs that were still RUNNING when the previous process stopped. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void resumeInterrupted() {
+        for (BillingRun run : billingRunRepository.findByStatus(BillingRun.Status.RUNNING)) {
+            launch(run.getId());
+        }
+    }
+
+    /**
+     * Merges the partitions finished so far into the dashboard summaries, for every run
+     * executing on this node. A failed merge is left to the next one.
+     */
+    @Scheduled(fixedDelayString = "${billing.runs.merge-interval-ms:10000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void mergeActiveRuns() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (Long runId : active) {
+            try {
+                tx.executeWithoutResult(s -> mergeTotals(runId));
+            } catch (RuntimeException e) {
+                // the partitions stay unmerged until the next merge
+            }
+        }
+    }
+
+    /**
+     * Takes the period's row lock, inserting the row first if this is the period's first run.
+     * Held until commit, it makes the RUNNING check and the insert of a new run atomic.
+     */
+    private void lockPeriod(String period) {
+        jdbcTemplate.update("insert into billing_run_periods (period) values (?) " +
+                "on duplicate key update period = period", period);
+        jdbcTemplate.queryForList("select period from billing_run_periods where period = ? for update", period);
+    }
+
+    private void launch(Long runId) {
+        if (!active.add(runId)) return;
+        failures.remove(runId);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        List<BillingRunPartition> pending = tx.execute(s -> {
+            BillingRun run = billingRunRepository.findForUpdateById(runId).orElseThrow();
+            addPartitions(run);
+            launches.put(runId, new Launch(System.nanoTime(), run.getCompletedPartitions(), run.getBillsCreated()));
+            return partitionRepository.findByRunIdAndDoneFalseOrderByLowId(runId);
+        });
+        String period = tx.execute(s -> billingRunRepository.findById(runId).orElseThrow().getPeriod());
+
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[pending.size()];
+        for (int i = 0; i < pending.size(); i++) {
+            BillingRunPartition partition = pending.get(i);
+            tasks[i] = CompletableFuture.runAsync(() -> billPartition(tx, runId, period, partition.getId()), workers)
+                    .exceptionally(e -> {
+                        failures.put(runId, "Partition " + partition.getLowId() + "-" + partition.getHighId()
+                                + " failed: " + e.getMessage());
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(tasks).whenComplete((v, e) -> {
+            try {
+                tx.executeWithoutResult(s -> {
+                    mergeTotals(runId);
+                    BillingRun run = billingRunRepository.findById(runId).orElseThrow();
+                    if (partitionRepository.findByRunIdAndDoneFalseOrderByLowId(runId).isEmpty()) {
+                        run.setStatus(BillingRun.Status.COMPLETED);
+                        run.setFinishedAt(LocalDateTime.now());
+                    }
+                });
+            } catch (RuntimeException ex) {
+                // the partitions stay unmerged and are picked up when the run is started again
+                failures.put(runId, "Merging the run's totals failed: " + ex.getMessage());
+            } finally {
+                launches.remove(runId);
+                active.remove(runId);
+            }
+        });
+    }
+
+    /**
+     * Lays out partitions for customer ids the run does not cover yet: all of them for a new
+     * run, those added since for a resumed one. The last range ends at the current highest
+     * id, so customers added later always fall into a new partition. Caller holds the run.
+     */
+    private void addPartitions(BillingRun run) {
+        long maxId = customerRepository.findMaxId();
+        List<BillingRunPartition> ranges = new ArrayList<>();
+        for (long low = partitionRepository.findCoveredUpTo(run.getId()); low <= maxId; low += PARTITION_SIZE) {
+            ranges.add(new BillingRunPartition(run.getId(), low, Math.min(low + PARTITION_SIZE, maxId + 1)));
+        }
+        if (ranges.isEmpty()) return;
+        partitionRepository.saveAll(ranges);
+        run.setTotalPartitions(run.getTotalPartitions() + ranges.size());
+    }
+
+    /** Bills the partition unless another launch has claimed or finished it. */
+    private void billPartition(TransactionTemplate tx, Long runId, String period, Long partitionId) {
+        tx.executeWithoutResult(s -> {
+            BillingRunPartition partition = partitionRepository.claimPending(partitionId).orElse(null);
+            if (partition == null) return;
+            List<BillRequest> entries = meterReadingRepository.findUnbilled(period, partition.getLowId(), partition.getHighId());
+            LocalDate billDate = LocalDate.now();
+            long created = 0;
+            double units = 0, amount = 0;
+            if (!entries.isEmpty()) {
+                for (BillBatchResult r : adminService.createBills(entries, period, billDate, false)) {
+                    if (BillBatchResult.CREATED.equals(r.status())) {
+                        created++;
+                        units  += entries.get(r.index()).unitsConsumed();
+                        amount += r.amount();
+                    }
+                }
+            }
+            partition.setDone(true);
+            partition.setBillsCreated(created);
+            partition.setBillDate(billDate);
+            partition.setTotalUnits(units);
+            partition.setTotalAmount(amount);
+            partition.setCompletedAt(LocalDateTime.now());
+            partitionRepository.save(partition);
+            billingRunRepository.recordPartition(runId, created);
+        });
+    }
+
+    /** Adds the finished, unmerged partitions' bills to the global and monthly summaries. */
+    private void mergeTotals(Long runId) {
+        List<BillingRunPartition> finished = partitionRepository.findByRunIdAndDoneTrueAndMergedFalse(runId);
+        if (finished.isEmpty()) return;
+        Map<LocalDate, Totals> byDate = new TreeMap<>();
+        for (BillingRunPartition p : finished) {
+            byDate.merge(p.getBillDate(), new Totals(p.getBillsCreated(), p.getTotalUnits(), p.getTotalAmount()), Totals::plus);
+            p.setMerged(true);
+        }
+        byDate.forEach((date, t) -> statsService.addBills(date, t.bills(), t.units(), t.amount()));
+        liveUpdates.billingRunMerged();
+    }
+
+    /**
+     * Throughput and ETA of a run executing on this node count from its current launch, so
+     * the time a resumed run spent stopped does not dilute them. Other runs report their
+     * average over the whole run and no ETA.
+     */
+    private Map<String, Object> toMap(BillingRun run) {
+        Launch launch = run.getFinishedAt() == null ? launches.get(run.getId()) : null;
+        double seconds;
+        int done;
+        long bills;
+        if (launch != null) {
+            seconds = Math.max(0.001, (System.nanoTime() - launch.startedNanos()) / 1e9);
+            done = run.getCompletedPartitions() - launch.completedPartitions();
+            bills = run.getBillsCreated() - launch.billsCreated();
+        } else {
+            LocalDateTime end = run.getFinishedAt() != null ? run.getFinishedAt() : LocalDateTime.now();
+            seconds = Math.max(0.001, Duration.between(run.getStartedAt(), end).toMillis() / 1000.0);
+            done = run.getCompletedPartitions();
+            bills = run.getBillsCreated();
+        }
+        int remaining = run.getTotalPartitions() - run.getCompletedPartitions();
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("id",                  run.getId());
+        res.put("period",              run.getPeriod());
+        res.put("status",              run.getStatus().name());
+        res.put("startedAt",           run.getStartedAt().toString());
+        res.put("finishedAt",          run.getFinishedAt() == null ? null : run.getFinishedAt().toString());
+        res.put("totalPartitions",     run.getTotalPartitions());
+        res.put("completedPartitions", run.getCompletedPartitions());
+        res.put("billsCreated",        run.getBillsCreated());
+        res.put("billsPerSecond",      Math.round(bills / seconds));
+        res.put("etaSeconds",          launch == null || done <= 0 || remaining == 0 ? null : Math.round(seconds / done * remaining));
+        res.put("lastFailure",         failures.get(run.getId()));
+        return res;
+    }
+
+    private static String parsePeriod(String period) {
+        try {
+            return YearMonth.parse(period).toString();
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("period must be in yyyy-MM format.");
+        }
+    }
+}
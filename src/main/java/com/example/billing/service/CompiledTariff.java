@@ -0,0 +1,84 @@
+package com.example.billing.service;
+
+import com.example.billing.model.Tariff;
+import com.example.billing.model.TariffSlab;
+
+import java.util.List;
+
+/**
+ * Immutable, primitive-only form of a Tariff used on the billing hot path.
+ *
+ * Units are handled as centi-units (hundredths of a unit) and money as paise, so
+ * evaluation is exact integer arithmetic with no allocation. For each slab the
+ * charge for every unit below it is precomputed, so pricing is one scan over a
+ * handful of slab bounds plus one multiply.
+ */
+public final class CompiledTariff {
+
+    /**
+     * Largest consumption a bill is priced for, and the highest rate a tariff may set.
+     * Together they keep amountPaise within a long: at most 10^8 centi-units times 10^8 paise.
+     */
+    public static final double MAX_UNITS = 1_000_000;
+    public static final long MAX_RATE_PAISE = 100_000_000;
+
+    private final long version;
+    private final long[] upperCentiUnits;   // inclusive slab upper bounds; Long.MAX_VALUE for the last
+    private final long[] ratePaise;         // per whole unit
+    private final long[] baseCentiPaise;    // charge for all units below the slab, in paise/100
+
+    CompiledTariff(long version, long[] upperCentiUnits, long[] ratePaise) {
+        this.version = version;
+        this.upperCentiUnits = upperCentiUnits;
+        this.ratePaise = ratePaise;
+        this.baseCentiPaise = new long[ratePaise.length];
+        long lower = 0, base = 0;
+        for (int i = 0; i < ratePaise.length; i++) {
+            baseCentiPaise[i] = base;
+            if (upperCentiUnits[i] != Long.MAX_VALUE) {
+                base += (upperCentiUnits[i] - lower) * ratePaise[i];
+                lower = upperCentiUnits[i];
+            }
+        }
+    }
+
+    static CompiledTariff compile(Tariff tariff) {
+        List<TariffSlab> slabs = tariff.getSlabs();
+        long[] upper = new long[slabs.size()];
+        long[] rate = new long[slabs.size()];
+        for (int i = 0; i < slabs.size(); i++) {
+            TariffSlab slab = slabs.get(i);
+            upper[i] = slab.getUpToUnits() == null ? Long.MAX_VALUE : slab.getUpToUnits() * 100;
+            rate[i] = slab.getRatePaise();
+        }
+        return new CompiledTariff(tariff.getId(), upper, rate);
+    }
+
+    public long version() { return version; }
+
+    /** Charge in paise for the given consumption in centi-units, rounded half up. */
+    public long amountPaise(long centiUnits) {
+        int i = 0;
+        while (centiUnits > upperCentiUnits[i]) i++;
+        long lower = i == 0 ? 0 : upperCentiUnits[i - 1];
+        long centiPaise = baseCentiPaise[i] + (centiUnits - lower) * ratePaise[i];
+        return (centiPaise + 50) / 100;
+    }
+
+    /** Convenience for callers holding units as double: returns rupees rounded to the paisa. */
+    public double amount(double units) {
+        return amountPaise(toCentiUnits(units)) / 100.0;
+    }
+
+    /** Why the consumption cannot be billed, or null if it can. */
+    public static String unitsError(double units) {
+        if (!Double.isFinite(units)) return "Units must be a finite number";
+        if (units < 1) return "Units must be at least 1";
+        if (units > MAX_UNITS) return "Units must be at most " + (long) MAX_UNITS;
+        return null;
+    }
+
+    public static long toCentiUnits(double units) {
+        return Math.round(units * 100);
+    }
+}
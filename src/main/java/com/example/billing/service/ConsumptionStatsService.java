@@ -0,0 +1,286 @@
+package com.example.billing.service;
+
+import com.example.billing.config.BackgroundThreads;
+import com.example.billing.dto.AnomalyView;
+import com.example.billing.dto.CursorPage;
+import com.example.billing.model.Bill;
+import com.example.billing.model.Role;
+import com.example.billing.repository.BillBatchRepository;
+import com.example.billing.repository.ConsumptionStatsRepository;
+import com.example.billing.repository.ConsumptionStatsRepository.Anomaly;
+import com.example.billing.repository.ConsumptionStatsRepository.Stats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-customer consumption baselines and anomaly flags. Each new bill is compared with
+ * the customer's running statistics and then folded into them, in O(1) per bill: the
+ * all-months row gives the spread, the row for the bill's calendar month (once it has
+ * enough history) the expected units. Bills further than billing.anomaly.threshold
+ * standard deviations from the expectation are recorded in bill_anomalies.
+ * <p>
+ * Writers join the bill's transaction and lock the customer's statistics rows
+ * (ConsumptionStatsRepository.find) before reading them, so ad-hoc bills, batches and
+ * billing-run partitions of the same customer apply their bills one after another, and
+ * none of them needs the global summary lock.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class ConsumptionStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumptionStatsService.class);
+
+    /** Bills in a calendar month before that month's mean replaces the all-months mean. */
+    private static final int MIN_SEASON_BILLS = 2;
+
+    @Autowired
+    private ConsumptionStatsRepository consumptionStatsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    /** Deviation, in standard deviations, above which a bill is flagged. */
+    @Value("${billing.anomaly.threshold:3.0}")
+    private double threshold;
+
+    /** Bills a customer needs before their bills are checked. */
+    @Value("${billing.anomaly.min-history:6}")
+    private int minHistory;
+
+    /**
+     * Floor for the standard deviation, as a fraction of the expected units, so that very
+     * steady customers are not flagged for small changes.
+     */
+    @Value("${billing.anomaly.min-deviation-ratio:0.1}")
+    private double minDeviationRatio;
+
+    private ExecutorService executor;
+    private Counter flagged;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastBackfill;
+
+    @PostConstruct
+    void start() {
+        flagged = meterRegistry.counter("billing.anomalies.flagged");
+        executor = Executors.newSingleThreadExecutor(backgroundThreads.factory("consumption-stats-backfill"));
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    // ---- Incremental updates ----
+
+    public void recordBill(Bill bill) {
+        recordBills(new long[] { bill.getId() }, new long[] { bill.getCustomer().getId() },
+                new double[] { bill.getUnitsConsumed() }, bill.getBillDate(), 1);
+    }
+
+    /** Rows [0, count) of a bulk insert, all billed on the same date. Returns the number flagged. */
+    public int recordBills(long[] billIds, long[] customerIds, double[] units, LocalDate billDate, int count) {
+        if (count == 0) return 0;
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < count; i++) ids.add(customerIds[i]);
+        Map<Long, Stats[]> stats = consumptionStatsRepository.find(ids, billDate.getMonthValue());
+        List<Anomaly> anomalies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Stats[] s = stats.get(customerIds[i]);
+            Anomaly a = check(billIds[i], customerIds[i], billDate, units[i], s[0], s[1]);
+            if (a != null) anomalies.add(a);
+            s[0].add(units[i], billDate);
+            s[1].add(units[i], billDate);
+        }
+        List<Stats> rows = new ArrayList<>(stats.size() * 2);
+        for (Stats[] s : stats.values()) {
+            rows.add(s[0]);
+            rows.add(s[1]);
+        }
+        consumptionStatsRepository.save(rows);
+        if (!anomalies.isEmpty()) {
+            consumptionStatsRepository.insertAnomalies(anomalies);
+            flagged.increment(anomalies.size());
+        }
+        return anomalies.size();
+    }
+
+    /** The flag for one bill against the statistics before it, or null. */
+    private Anomaly check(long billId, long customerId, LocalDate billDate, double units, Stats all, Stats month) {
+        if (all.billCount < minHistory) return null;
+        double expected = month.billCount >= MIN_SEASON_BILLS ? month.meanUnits : all.meanUnits;
+        double stdDev = Math.max(all.stdDev(), minDeviationRatio * expected);
+        if (stdDev <= 0) return null;
+        double score = (units - expected) / stdDev;
+        return Math.abs(score) > threshold
+                ? new Anomaly(billId, customerId, billDate, units, expected, stdDev, score) : null;
+    }
+
+    // ---- Admin ----
+
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public CursorPage<AnomalyView> getAnomalies(HttpSession session, String cursor, Integer limit) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        int size = CursorPage.clampLimit(limit);
+        long before;
+        try {
+            before = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        List<AnomalyView> rows = consumptionStatsRepository.findAnomalies(before, size + 1);
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, size);
+        }
+        List<AnomalyView> items = rows.subList(0, size);
+        return new CursorPage<>(items, String.valueOf(items.get(size - 1).billId()), size);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getBackfillStatus(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("running",  running.get());
+        res.put("lastRun",  lastBackfill);
+        return res;
+    }
+
+    /** Starts a rebuild of all statistics and flags in the background unless one is running. */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> startBackfill(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        executor.execute(this::backfill);
+        return getBackfillStatus(session);
+    }
+
+    // ---- Backfill ----
+
+    /** Fills the statistics on first start against an existing database (after the V6 migration). */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void initialize() {
+        if (consumptionStatsRepository.isEmpty()) executor.execute(this::backfill);
+    }
+
+    private void backfill() {
+        if (!running.compareAndSet(false, true)) return;
+        LocalDateTime started = LocalDateTime.now();
+        Backfill pass = new Backfill();
+        String error = null;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(s -> pass.run());
+            log.info("Consumption statistics rebuilt from {} bills, {} flagged, in {} ms", pass.bills, pass.flagged,
+                    Duration.between(started, LocalDateTime.now()).toMillis());
+        } catch (Exception e) {
+            // rolled back: the previous statistics stay in place
+            error = e.toString();
+            log.warn("Consumption statistics backfill failed: {}", error);
+        } finally {
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("startedAt",  started.toString());
+            run.put("bills",      pass.bills);
+            run.put("flagged",    pass.flagged);
+            run.put("durationMs", Duration.between(started, LocalDateTime.now()).toMillis());
+            run.put("error",      error);
+            lastBackfill = run;
+            running.set(false);
+        }
+    }
+
+    /**
+     * One pass over every bill in (customer, date, id) order, applying the same check and
+     * update as the incremental path, so the result matches bills generated one by one.
+     * Holds the state of one customer at a time and writes in batches. Deleting the old
+     * rows first waits for writers that hold them and makes later writers wait on those
+     * rows until the rebuild commits; they then apply their bills on top of it.
+     */
+    private final class Backfill {
+        final Stats[] current = new Stats[13];
+        final List<Stats> pendingStats = new ArrayList<>();
+        final List<Anomaly> pendingAnomalies = new ArrayList<>();
+        long customerId = -1;
+        long bills;
+        long flagged;
+
+        void run() {
+            consumptionStatsRepository.deleteAll();
+            try {
+                bills = consumptionStatsRepository.forEachBill(this::accept);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Reading bills failed", e);
+            }
+            endCustomer();
+            flush();
+        }
+
+        void accept(long customer, long billId, LocalDate billDate, double units) {
+            if (customer != customerId) {
+                endCustomer();
+                customerId = customer;
+            }
+            int month = billDate.getMonthValue();
+            if (current[ConsumptionStatsRepository.ALL_MONTHS] == null) {
+                current[ConsumptionStatsRepository.ALL_MONTHS] = new Stats(customer, ConsumptionStatsRepository.ALL_MONTHS);
+            }
+            if (current[month] == null) current[month] = new Stats(customer, month);
+            Anomaly a = check(billId, customer, billDate, units, current[ConsumptionStatsRepository.ALL_MONTHS], current[month]);
+            if (a != null) {
+                pendingAnomalies.add(a);
+                flagged++;
+            }
+            current[ConsumptionStatsRepository.ALL_MONTHS].add(units, billDate);
+            current[month].add(units, billDate);
+        }
+
+        void endCustomer() {
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] != null) pendingStats.add(current[i]);
+                current[i] = null;
+            }
+            if (pendingStats.size() >= BillBatchRepository.BATCH_SIZE
+                    || pendingAnomalies.size() >= BillBatchRepository.BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            consumptionStatsRepository.save(pendingStats);
+            consumptionStatsRepository.insertAnomalies(pendingAnomalies);
+            pendingStats.clear();
+            pendingAnomalies.clear();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.CustomerProfile;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * userId -> customer profile for logged-in customers. The mapping only changes when a
+ * customer is deleted or edited, so it is cached with a size bound and a TTL as a backstop.
+ * Writers must call evictUser after committing such changes.
+ */
+@Component
+public class CustomerProfileCache {
+
+    private final Cache<Long, CustomerProfile> cache;
+
+    public CustomerProfileCache(@Value("${billing.cache.customer.max-size:10000}") long maxSize,
+                                @Value("${billing.cache.customer.ttl:10m}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customerProfiles");
+    }
+
+    /** Returns the cached profile, loading it on a miss; a null from the loader is not cached. */
+    public CustomerProfile get(Long userId, Function<Long, CustomerProfile> loader) {
+        return cache.get(userId, loader);
+    }
+
+    public void evictUser(Long userId) {
+        if (userId != null) cache.invalidate(userId);
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats s = cache.stats();
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("size",      cache.estimatedSize());
+        res.put("hits",      s.hitCount());
+        res.put("misses",    s.missCount());
+        res.put("hitRate",   s.hitRate());
+        res.put("evictions", s.evictionCount());
+        return res;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.billing.service;
+
+import com.example.billing.config.BackgroundThreads;
+import com.example.billing.model.Customer;
+import com.example.billing.repository.CustomerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Physically removes customers flagged by AdminService: their bills (hot and archived) in fixed-size chunks
+ * (one short transaction each, so a customer with years of history never holds locks for
+ * long), then their meter readings, consumption statistics and the customer row.
+ * Summaries were already adjusted when the customer was flagged. The deletes bypass
+ * Hibernate, so the customer is then evicted from the second-level cache. Runs on its
+ * own thread; an interrupted purge simply continues on the next pass.
+ */
+@Component
+public class CustomerPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerPurgeJob.class);
+
+    /** Flagged customers picked up per pass. */
+    private static final int CUSTOMERS_PER_PASS = 100;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    @Value("${billing.customer.purge-interval:30s}")
+    private Duration interval;
+
+    /** Bills deleted per statement / transaction. */
+    @Value("${billing.customer.purge-chunk-size:5000}")
+    private int chunkSize;
+
+    private ScheduledExecutorService executor;
+    private TransactionTemplate tx;
+
+    @PostConstruct
+    void start() {
+        tx = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("customer-purge"));
+        executor.scheduleWithFixedDelay(this::purgeFlagged, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    private void purgeFlagged() {
+        try {
+            List<Long> ids;
+            do {
+                ids = tx.execute(s -> customerRepository.findDeletedIds(Limit.of(CUSTOMERS_PER_PASS)));
+                for (Long id : ids) {
+                    if (Thread.currentThread().isInterrupted()) return;
+                    purge(id);
+                }
+            } while (ids.size() == CUSTOMERS_PER_PASS);
+        } catch (Exception e) {
+            // keep the schedule alive; whatever is left is picked up on the next pass
+            log.warn("Customer purge failed: {}", e.toString());
+        }
+    }
+
+    /** Returns the number of bills removed. */
+    long purge(Long customerId) {
+        long started = System.currentTimeMillis();
+        long bills = 0;
+        int deleted;
+        for (String table : new String[] {"bills", "bills_archive"}) {
+            do {
+                deleted = tx.execute(s -> jdbcTemplate.update(
+                        "delete from " + table + " where customer_id = ? limit ?", customerId, chunkSize));
+                bills += deleted;
+            } while (deleted == chunkSize);
+        }
+        tx.executeWithoutResult(s -> {
+            jdbcTemplate.update("delete from meter_readings where customer_id = ?", customerId);
+            jdbcTemplate.update("delete from bill_anomalies where customer_id = ?", customerId);
+            jdbcTemplate.update("delete from consumption_stats where customer_id = ?", customerId);
+            jdbcTemplate.update("delete from customers where id = ? and deleted_at is not null", customerId);
+        });
+        // natural-id entries can only be evicted per region; the email may be registered again
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(Customer.class, customerId);
+        cache.evictNaturalIdData(Customer.class);
+        log.info("Purged customer {}: {} bills in {} ms", customerId, bills, System.currentTimeMillis() - started);
+        return bills;
+    }
+}
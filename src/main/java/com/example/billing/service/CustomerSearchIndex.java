@@ -0,0 +1,287 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.CustomerProfile;
+import com.example.billing.model.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory typeahead index over customers. Name, email and address are split into
+ * lowercase word tokens; a customer matches when every query term is a prefix of one of
+ * its tokens or of its id. The sorted token dictionary turns a term into a range of
+ * posting lists, so a lookup only walks candidates of the most selective term.
+ * <p>
+ * Built from the customers table at startup and kept current by the services that add,
+ * edit and delete customers (after their transaction commits). Costs roughly 250 bytes
+ * per customer.
+ */
+@Component
+public class CustomerSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * Candidates verified per lookup. A multi-term query whose most selective term still
+     * matches more customers than this returns only the matches found within the budget.
+     */
+    static final int MAX_CANDIDATES = 10_000;
+
+    /** Dictionary entries summed when estimating how selective a term is. */
+    private static final int MAX_ESTIMATE_TOKENS = 64;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, Entry> entries = new TreeMap<>();
+    private final TreeMap<String, Postings> dictionary = new TreeMap<>();
+
+    private record Entry(CustomerProfile profile, String[] tokens) {}
+
+    /** Loads every customer. Runs after the other ready listeners (e.g. load-test seeding). */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            dictionary.clear();
+            jdbcTemplate.query("select id, name, email, address from customers where deleted_at is null",
+                    (RowCallbackHandler) rs -> add(new CustomerProfile(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4))));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Customer search index: {} customers, {} tokens in {} ms",
+                size(), dictionary.size(), System.currentTimeMillis() - started);
+    }
+
+    // ---- Lookups ----
+
+    /** Top matches for the query: id-prefix hits first, then by matching token, then by id. */
+    public List<CustomerProfile> search(String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) return List.of();
+
+        Map<Long, CustomerProfile> hits = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            String driver = mostSelective(terms);
+            int budget = MAX_CANDIDATES;
+            if (isDigits(driver)) {
+                budget = collectIdPrefix(driver, terms, limit, budget, hits);
+            }
+            for (Postings postings : range(driver).values()) {
+                for (int i = 0; i < postings.size && hits.size() < limit && budget > 0; i++, budget--) {
+                    Entry entry = entries.get(postings.ids[i]);
+                    if (matches(entry, terms)) hits.putIfAbsent(entry.profile().id(), entry.profile());
+                }
+                if (hits.size() >= limit || budget <= 0) break;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(hits.values());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids starting with the digits, shortest first: 42, 420..429, 4200..4299, ... */
+    private int collectIdPrefix(String digits, String[] terms, int limit, int budget, Map<Long, CustomerProfile> hits) {
+        if (entries.isEmpty() || digits.length() > 18 || (digits.length() > 1 && digits.charAt(0) == '0')) return budget;
+        long maxId = entries.lastKey();
+        long low = Long.parseLong(digits), span = 1;
+        while (low <= maxId && hits.size() < limit && budget > 0) {
+            for (Entry entry : entries.subMap(low, true, low + span - 1, true).values()) {
+                if (hits.size() >= limit || budget-- <= 0) break;
+                if (matches(entry, terms)) hits.putIfAbsent(entry.profile().id(), entry.profile());
+            }
+            if (low > maxId / 10) break;
+            low *= 10;
+            span *= 10;
+        }
+        return budget;
+    }
+
+    /** The term whose dictionary range holds the fewest postings; digit-only terms only when nothing else is given. */
+    private String mostSelective(String[] terms) {
+        String best = null;
+        long bestCount = Long.MAX_VALUE;
+        for (String term : terms) {
+            if (isDigits(term)) continue;
+            long count = 0;
+            int visited = 0;
+            for (Postings postings : range(term).values()) {
+                count += postings.size;
+                if (count >= bestCount || ++visited >= MAX_ESTIMATE_TOKENS) break;
+            }
+            if (count < bestCount) {
+                best = term;
+                bestCount = count;
+            }
+        }
+        if (best != null) return best;
+        String longest = terms[0];
+        for (String term : terms) if (term.length() > longest.length()) longest = term;
+        return longest;
+    }
+
+    private NavigableMap<String, Postings> range(String prefix) {
+        return dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static boolean matches(Entry entry, String[] terms) {
+        String id = null;
+        outer:
+        for (String term : terms) {
+            for (String token : entry.tokens()) {
+                if (token.startsWith(term)) continue outer;
+            }
+            if (isDigits(term)) {
+                if (id == null) id = entry.profile().id().toString();
+                if (id.startsWith(term)) continue;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    // ---- Maintenance ----
+
+    /** Adds or replaces a customer. */
+    public void put(CustomerProfile profile) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(profile.id());
+            add(profile);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long customerId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(customerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexes the customer's current state once the surrounding transaction commits. */
+    public void putAfterCommit(Customer customer) {
+        CustomerProfile profile = CustomerProfile.of(customer);
+        AfterCommit.run(() -> put(profile));
+    }
+
+    public void removeAfterCommit(Long customerId) {
+        AfterCommit.run(() -> remove(customerId));
+    }
+
+    /** Caller holds the write lock. Tokens share the dictionary's key instances. */
+    private void add(CustomerProfile profile) {
+        String[] tokens = tokenize(profile.name() + ' ' + profile.email() + ' ' + profile.address());
+        for (int i = 0; i < tokens.length; i++) {
+            Map.Entry<String, Postings> existing = dictionary.ceilingEntry(tokens[i]);
+            Postings postings;
+            if (existing != null && existing.getKey().equals(tokens[i])) {
+                tokens[i] = existing.getKey();
+                postings = existing.getValue();
+            } else {
+                postings = new Postings();
+                dictionary.put(tokens[i], postings);
+            }
+            postings.add(profile.id());
+        }
+        entries.put(profile.id(), new Entry(profile, tokens));
+    }
+
+    private void removeEntry(Long customerId) {
+        Entry entry = entries.remove(customerId);
+        if (entry == null) return;
+        for (String token : entry.tokens()) {
+            Postings postings = dictionary.get(token);
+            if (postings != null && postings.remove(customerId) && postings.size == 0) {
+                dictionary.remove(token);
+            }
+        }
+    }
+
+    /** Distinct lowercase runs of letters and digits. */
+    static String[] tokenize(String text) {
+        if (text == null) return new String[0];
+        String lower = text.toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>(8);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!tokens.contains(token)) tokens.add(token);
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static boolean isDigits(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') return false;
+        }
+        return !s.isEmpty();
+    }
+
+    /** Sorted customer ids for one token. Ids mostly arrive in increasing order, so adds append. */
+    private static final class Postings {
+        long[] ids = new long[2];
+        int size;
+
+        void add(long id) {
+            int at = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                at = -at - 1;
+            } else if (at < size) {
+                return;
+            }
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return false;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.example.billing.service;
 
+import com.example.billing.dto.BillCursor;
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillView;
+import com.example.billing.dto.CursorPage;
+import com.example.billing.dto.CustomerProfile;
+import com.example.billing.dto.CustomerVersion;
 import com.example.billing.exception.ResourceNotFoundException;
-import com.example.billing.model.Bill;
 import com.example.billing.model.Customer;
+import com.example.billing.model.CustomerSummary;
 import com.example.billing.model.Role;
-import com.example.billing.repository.BillRepository;
 import com.example.billing.repository.CustomerRepository;
+import com.example.billing.repository.CustomerSummaryRepository;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Service
 @Transactional(readOnly = true)
@@ -21,18 +29,102 @@ public class CustomerService {
     private CustomerRepository customerRepository;
 
     @Autowired
-    private BillRepository billRepository;
+    private BillArchiveService billArchiveService;
 
-    public Customer getProfile(HttpSession session) {
-        Long userId = SessionHelper.requireRole(session, Role.CUSTOMER);
-        return customerRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer profile not found for your account."));
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private CustomerSummaryRepository customerSummaryRepository;
+
+    @Autowired
+    private CustomerProfileCache customerProfileCache;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private LiveUpdates liveUpdates;
+
+    public CustomerProfile getProfile(HttpSession session) {
+        return currentProfile(session);
     }
 
-    public List<Bill> getMyBills(HttpSession session) {
+    /**
+     * Updates the caller's own profile. Null fields are left unchanged. Bumps the data
+     * version (ETags) and evicts the cached profile after commit.
+     */
+    @Transactional
+    public CustomerProfile updateProfile(HttpSession session, String name, String email, String address) {
         Long userId = SessionHelper.requireRole(session, Role.CUSTOMER);
         Customer customer = customerRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer profile not found for your account."));
-        return billRepository.findByCustomerId(customer.getId());
+        if (name != null) {
+            if (name.isBlank()) throw new IllegalArgumentException("Name must not be blank.");
+            customer.setName(name);
+        }
+        if (address != null) {
+            if (address.isBlank()) throw new IllegalArgumentException("Address must not be blank.");
+            customer.setAddress(address);
+        }
+        if (email != null && !email.equals(customer.getEmail())) {
+            if (email.isBlank()) throw new IllegalArgumentException("Email must not be blank.");
+            if (customerRepository.loadByEmail(email).isPresent()) throw new IllegalArgumentException("Email already registered: " + email);
+            customer.setEmail(email);
+        }
+        statsService.recordCustomerChanged(customer.getId());
+        AfterCommit.run(() -> customerProfileCache.evictUser(userId));
+        customerSearchIndex.putAfterCommit(customer);
+        return CustomerProfile.of(customer);
+    }
+
+    /**
+     * Current data version of the caller's customer, with the stat card totals:
+     * one primary-key read, no bill query.
+     */
+    public CustomerVersion getVersion(HttpSession session) {
+        Long customerId = currentProfile(session).id();
+        return customerSummaryRepository.findById(customerId)
+                .map(s -> new CustomerVersion(customerId, s.getDataVersion(), s.getLastModifiedMillis(),
+                        StatsService.customerSnapshot(s)))
+                .orElseGet(() -> new CustomerVersion(customerId, 0, -1,
+                        StatsService.customerSnapshot(new CustomerSummary(customerId))));
+    }
+
+    public CursorPage<BillView> getMyBills(HttpSession session, BillFilter filter, String cursor, Integer limit) {
+        Long customerId = currentProfile(session).id();
+        return billArchiveService.findPage(filter.forCustomer(customerId),
+                BillCursor.parse(cursor), CursorPage.clampLimit(limit));
+    }
+
+    /**
+     * Profile, stats and the first page of bills in one response, for the dashboard's first
+     * paint. The stats come with the version the caller already read for the validators, and
+     * the profile from the cache, so only the bills page reads the database.
+     */
+    public Map<String, Object> getDashboard(HttpSession session, CustomerVersion version, Integer limit) {
+        CustomerProfile profile = currentProfile(session);
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("profile", profile);
+        res.put("stats",   version.stats());
+        res.put("bills",   billArchiveService.findPage(BillFilter.forCustomerOnly(profile.id()), null,
+                CursorPage.clampLimit(limit)));
+        return res;
+    }
+
+    /** The caller's new bills and running totals as server-sent events. */
+    public SseEmitter subscribeEvents(HttpSession session) {
+        return liveUpdates.subscribeCustomer(currentProfile(session).id());
+    }
+
+    /** Resolves the logged-in user's customer through the profile cache. */
+    private CustomerProfile currentProfile(HttpSession session) {
+        Long userId = SessionHelper.requireRole(session, Role.CUSTOMER);
+        CustomerProfile profile = customerProfileCache.get(userId, id ->
+                customerRepository.findByUserId(id).map(CustomerProfile::of).orElse(null));
+        if (profile == null) {
+            throw new ResourceNotFoundException("Customer profile not found for your account.");
+        }
+        return profile;
     }
 }
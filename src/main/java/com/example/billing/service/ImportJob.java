@@ -0,0 +1,82 @@
+package com.example.billing.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one meter-reading import. Counters are updated by the parse and insert
+ * stages while the upload is running and can be polled concurrently.
+ */
+public class ImportJob {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    /** Only the first errors are kept so a bad file cannot grow the job without bound. */
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final String id = UUID.randomUUID().toString();
+    private final String format;
+    private final Instant startedAt = Instant.now();
+    private volatile Instant finishedAt;
+    private volatile State state = State.RUNNING;
+    private volatile String failure;
+
+    private final AtomicLong linesRead = new AtomicLong();
+    private final AtomicLong imported  = new AtomicLong();
+    private final AtomicLong rejected  = new AtomicLong();
+    private final List<Map<String, Object>> errors = new ArrayList<>();
+
+    public ImportJob(String format) {
+        this.format = format;
+    }
+
+    public String getId() { return id; }
+    public State getState() { return state; }
+
+    void lineRead()            { linesRead.incrementAndGet(); }
+    void imported(long count)  { imported.addAndGet(count); }
+
+    void rejected(long line, String message) {
+        rejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                Map<String, Object> e = new LinkedHashMap<>();
+                e.put("line", line);
+                e.put("error", message);
+                errors.add(e);
+            }
+        }
+    }
+
+    void finish(State state, String failure) {
+        this.failure = failure;
+        this.finishedAt = Instant.now();
+        this.state = state;
+    }
+
+    public Map<String, Object> toMap() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("id",            id);
+        res.put("format",        format);
+        res.put("state",         state.name());
+        res.put("startedAt",     startedAt.toString());
+        res.put("finishedAt",    finishedAt == null ? null : finishedAt.toString());
+        res.put("linesRead",     linesRead.get());
+        res.put("imported",      imported.get());
+        res.put("rejected",      rejected.get());
+        res.put("rowsPerSecond", imported.get() * 1000 / millis);
+        res.put("failure",       failure);
+        synchronized (errors) {
+            res.put("errors", new ArrayList<>(errors));
+        }
+        return res;
+    }
+}
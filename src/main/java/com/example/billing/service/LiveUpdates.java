@@ -0,0 +1,380 @@
+package com.example.billing.service;
+
+import com.example.billing.config.BackgroundThreads;
+import com.example.billing.dto.BillView;
+import com.example.billing.dto.CustomerProfile;
+import com.example.billing.model.Bill;
+import com.example.billing.model.Customer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Server-sent events for the dashboards. AdminService publishes after commit; publishing
+ * never blocks and costs nothing while nobody is subscribed. Each subscriber has a bounded
+ * queue drained on a sender thread, at most one send in flight per subscriber:
+ * <ul>
+ *   <li>bill, bills, customer-added, customers-deleted are queued; a subscriber whose
+ *       queue overflows loses its backlog and gets one "resync" (reload what you show);</li>
+ *   <li>totals are coalesced: writers only mark them changed, and every flush-interval
+ *       they are read once and replace whatever a subscriber has not been sent yet.</li>
+ * </ul>
+ * Admins receive every event; a customer receives only their own bills and totals.
+ */
+@Component
+public class LiveUpdates {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdates.class);
+
+    private static final Event RESYNC = new Event("resync", Map.of());
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    /** Open streams across all users; further subscribers are told to retry later. */
+    @Value("${billing.live.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    /** Queued events per subscriber before it is switched to resync. */
+    @Value("${billing.live.queue-size:100}")
+    private int queueSize;
+
+    @Value("${billing.live.flush-interval:500ms}")
+    private Duration flushInterval;
+
+    @Value("${billing.live.heartbeat:20s}")
+    private Duration heartbeat;
+
+    /** Streams are closed after this long; EventSource reconnects, which re-checks the session. */
+    @Value("${billing.live.timeout:30m}")
+    private Duration timeout;
+
+    /** Sender threads kept between bursts; the pool grows to one per busy subscriber. */
+    @Value("${billing.live.sender-threads:2}")
+    private int senderThreads;
+
+    private final Set<Subscriber> admins = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> customers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicBoolean totalsChanged = new AtomicBoolean();
+    private final Set<Long> customerTotalsChanged = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService flusher;
+    private ExecutorService senders;
+    private TransactionTemplate tx;
+    private Counter sent, dropped, rejected;
+    private long lastHeartbeat;
+
+    private record Event(String name, Object data) {
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Long customerId;
+        final ArrayBlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueSize);
+        final AtomicReference<Object> totals = new AtomicReference<>();
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean overflowed;
+        volatile boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter, Long customerId) {
+            this.emitter = emitter;
+            this.customerId = customerId;
+        }
+
+        void offer(Event event) {
+            if (!queue.offer(event)) {
+                if (!overflowed) dropped.increment();
+                overflowed = true;
+            }
+            schedule(this);
+        }
+
+        boolean hasWork() {
+            return overflowed || heartbeatDue || totals.get() != null || !queue.isEmpty();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        // on the primary: totals read from a lagging replica would not be corrected until the next change
+        tx = new TransactionTemplate(transactionManager);
+        sent     = meterRegistry.counter("billing.live.events", "result", "sent");
+        dropped  = meterRegistry.counter("billing.live.events", "result", "dropped");
+        rejected = meterRegistry.counter("billing.live.subscriptions.rejected");
+        meterRegistry.gauge("billing.live.subscribers", subscribers);
+        // sends are blocking writes, so a stalled client must not hold a thread others wait for
+        senders = new ThreadPoolExecutor(senderThreads, Math.max(senderThreads, maxSubscribers), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), backgroundThreads.factory("live-updates-sender"));
+        flusher = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("live-updates"));
+        lastHeartbeat = System.currentTimeMillis();
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    // ---- Subscriptions ----
+
+    /** Caller has checked the ADMIN role. */
+    public SseEmitter subscribeAdmin() {
+        return subscribe(null);
+    }
+
+    /** Caller has resolved the customer from the session. */
+    public SseEmitter subscribeCustomer(Long customerId) {
+        return subscribe(customerId);
+    }
+
+    private SseEmitter subscribe(Long customerId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            rejected.increment();
+            try {
+                // completes the stream at once; EventSource waits `retry` before reconnecting
+                emitter.send(SseEmitter.event().reconnectTime(30_000).comment("too many subscribers"));
+            } catch (IOException ignored) {
+                // client already gone
+            }
+            emitter.complete();
+            return emitter;
+        }
+        Subscriber s = new Subscriber(emitter, customerId);
+        emitter.onCompletion(() -> remove(s));
+        emitter.onTimeout(() -> remove(s));
+        emitter.onError(e -> remove(s));
+        if (customerId == null) admins.add(s);
+        else customers.computeIfAbsent(customerId, id -> ConcurrentHashMap.newKeySet()).add(s);
+        return emitter;
+    }
+
+    private void remove(Subscriber s) {
+        boolean removed;
+        if (s.customerId == null) {
+            removed = admins.remove(s);
+        } else {
+            removed = false;
+            Set<Subscriber> own = customers.get(s.customerId);
+            if (own != null) {
+                removed = own.remove(s);
+                if (own.isEmpty()) customers.remove(s.customerId, own);
+            }
+        }
+        if (removed) subscribers.decrementAndGet();
+    }
+
+    // ---- Publishing (after commit) ----
+
+    public void customerAdded(Customer customer) {
+        CustomerProfile profile = CustomerProfile.of(customer);
+        AfterCommit.run(() -> {
+            totalsChanged.set(true);
+            toAdmins(new Event("customer-added", profile));
+        });
+    }
+
+    public void customersDeleted(Collection<Long> customerIds) {
+        List<Long> ids = List.copyOf(customerIds);
+        AfterCommit.run(() -> {
+            totalsChanged.set(true);
+            toAdmins(new Event("customers-deleted", Map.of("ids", ids)));
+        });
+    }
+
+    public void billGenerated(Bill bill) {
+        Customer c = bill.getCustomer();
+        BillView view = new BillView(bill.getId(), bill.getUnitsConsumed(), bill.getAmount(), bill.getBillDate(),
+                c.getId(), c.getName());
+        AfterCommit.run(() -> {
+            totalsChanged.set(true);
+            toAdmins(new Event("bill", view));
+            toCustomer(view.customerId(), new Event("bill", view));
+        });
+    }
+
+    /** A billing run added its partitions' bills to the global totals. */
+    public void billingRunMerged() {
+        AfterCommit.run(() -> totalsChanged.set(true));
+    }
+
+    /**
+     * A batch from createBills: admins get one "bills" summary instead of a row each, each
+     * subscribed customer gets their own rows. The arrays are owned by the caller's
+     * transaction and are not modified after this call.
+     */
+    public void billsGenerated(long[] billIds, long[] customerIds, double[] units, double[] amounts,
+                               LocalDate billDate, String billingPeriod, int count) {
+        if (count == 0) return;
+        AfterCommit.run(() -> {
+            totalsChanged.set(true);
+            if (!admins.isEmpty()) {
+                double totalUnits = 0, totalAmount = 0;
+                for (int i = 0; i < count; i++) {
+                    totalUnits  += units[i];
+                    totalAmount += amounts[i];
+                }
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("count",         count);
+                summary.put("unitsConsumed", totalUnits);
+                summary.put("amount",        totalAmount);
+                summary.put("billDate",      billDate.toString());
+                summary.put("billingPeriod", billingPeriod);
+                toAdmins(new Event("bills", summary));
+            }
+            if (customers.isEmpty()) return;
+            for (int i = 0; i < count; i++) {
+                if (!customers.containsKey(customerIds[i])) continue;
+                toCustomer(customerIds[i], new Event("bill",
+                        new BillView(billIds[i], units[i], amounts[i], billDate, customerIds[i], null)));
+            }
+        });
+    }
+
+    private void toAdmins(Event event) {
+        for (Subscriber s : admins) s.offer(event);
+    }
+
+    private void toCustomer(Long customerId, Event event) {
+        Set<Subscriber> own = customers.get(customerId);
+        if (own == null) return;
+        customerTotalsChanged.add(customerId);
+        for (Subscriber s : own) s.offer(event);
+    }
+
+    // ---- Delivery ----
+
+    /** Reads changed totals once for everybody, marks heartbeats and wakes idle subscribers. */
+    private void flush() {
+        try {
+            if (subscribers.get() == 0) {
+                totalsChanged.set(false);
+                customerTotalsChanged.clear();
+                return;
+            }
+            if (totalsChanged.getAndSet(false) && !admins.isEmpty()) {
+                Map<String, Object> totals = tx.execute(s -> statsService.totals());
+                for (Subscriber s : admins) s.totals.set(totals);
+            }
+            if (!customerTotalsChanged.isEmpty()) {
+                List<Long> ids = new ArrayList<>();
+                for (Iterator<Long> it = customerTotalsChanged.iterator(); it.hasNext(); ) {
+                    ids.add(it.next());
+                    it.remove();
+                }
+                Map<Long, Map<String, Object>> totals = tx.execute(s -> statsService.customerSnapshots(ids));
+                for (Map.Entry<Long, Map<String, Object>> e : totals.entrySet()) {
+                    Set<Subscriber> own = customers.get(e.getKey());
+                    if (own != null) own.forEach(s -> s.totals.set(e.getValue()));
+                }
+            }
+            long now = System.currentTimeMillis();
+            boolean beat = now - lastHeartbeat >= heartbeat.toMillis();
+            if (beat) lastHeartbeat = now;
+            for (Subscriber s : admins) wake(s, beat);
+            for (Set<Subscriber> own : customers.values()) {
+                for (Subscriber s : own) wake(s, beat);
+            }
+        } catch (Exception e) {
+            // keep the schedule alive; the next change marks the totals again
+            log.warn("Live update flush failed: {}", e.toString());
+        }
+    }
+
+    private void wake(Subscriber s, boolean beat) {
+        if (beat) s.heartbeatDue = true;
+        schedule(s);
+    }
+
+    private void schedule(Subscriber s) {
+        if (s.hasWork() && s.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(s));
+            } catch (RuntimeException e) {
+                // shutting down, or every thread busy: the next flush wakes it again
+                s.sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Runs on a sender thread, never twice at once for the same subscriber. A client that
+     * stops reading blocks its own thread until the connector's write timeout; meanwhile
+     * its queue overflows, and the others are served on threads of their own.
+     */
+    private void drain(Subscriber s) {
+        do {
+            try {
+                if (s.overflowed) {
+                    s.overflowed = false;
+                    s.queue.clear();
+                    send(s, RESYNC);
+                }
+                Event event;
+                while ((event = s.queue.poll()) != null) send(s, event);
+                Object totals = s.totals.getAndSet(null);
+                if (totals != null) send(s, new Event("totals", totals));
+                if (s.heartbeatDue) {
+                    s.heartbeatDue = false;
+                    s.emitter.send(SseEmitter.event().comment("ping"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // disconnected or already completed
+                remove(s);
+                s.queue.clear();
+                return;
+            } finally {
+                s.sending.set(false);
+            }
+        } while (s.hasWork() && s.sending.compareAndSet(false, true));
+    }
+
+    private void send(Subscriber s, Event event) throws IOException {
+        s.emitter.send(SseEmitter.event().name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+        sent.increment();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.billing.service;
+
+import com.example.billing.model.Role;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Admin-only view of the application's meters in Prometheus text format: HTTP latency
+ * histograms per endpoint, service method timers, SQL execution and per-request counts,
+ * Hibernate statistics, Hikari pool usage, cache hit rates and JVM metrics.
+ */
+@Service
+public class MetricsService {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Autowired
+    private PrometheusMeterRegistry registry;
+
+    public String scrape(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        return registry.scrape();
+    }
+}
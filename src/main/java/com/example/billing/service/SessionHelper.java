@@ -7,7 +7,9 @@ import jakarta.servlet.http.HttpSession;
 
 /**
  * Utility methods for reading and validating HttpSession data.
- * Called by every protected service method.
+ * Called by every protected service method. In token mode (billing.session.mode=token)
+ * the session is a TokenSession whose attributes come from an already verified token,
+ * so these checks never touch server-side state.
  */
 public class SessionHelper {
 
@@ -0,0 +1,145 @@
+package com.example.billing.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 session tokens:
+ * base64url("userId|role|issuedEpochSecond|expiresEpochSecond|username") + "." + base64url(signature).
+ * Verification is pure computation, so any node holding the secret accepts any token.
+ * Only active with billing.session.mode=token.
+ *
+ * A refreshed token keeps the issue time of the login that created it, and no refresh
+ * extends it past billing.session.max-lifetime from that login. A stolen token therefore
+ * cannot be kept alive forever; with no server-side state, this bound is also how long a
+ * token copied before logout can be used.
+ */
+@Component
+@ConditionalOnProperty(name = "billing.session.mode", havingValue = "token")
+public class SessionTokens {
+
+    public record Claims(Long userId, String username, String role, Instant issuedAt, Instant expiresAt) {}
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final int MAX_POOLED_MACS = 64;
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Duration maxLifetime;
+    private final Clock clock;
+
+    /**
+     * Mac lookup and init dominate a verify, so initialised instances are pooled, up to
+     * MAX_POOLED_MACS of them. They are not kept per thread: with virtual threads every
+     * request runs on a new one.
+     */
+    private final BlockingQueue<Mac> macs = new ArrayBlockingQueue<>(MAX_POOLED_MACS);
+
+    @Autowired
+    public SessionTokens(@Value("${billing.session.secret:}") String secret,
+                         @Value("${billing.session.token-ttl:30m}") Duration ttl,
+                         @Value("${billing.session.max-lifetime:12h}") Duration maxLifetime) {
+        this(secret, ttl, maxLifetime, Clock.systemUTC());
+    }
+
+    SessionTokens(String secret, Duration ttl, Duration maxLifetime, Clock clock) {
+        if (secret.length() < 32) {
+            throw new IllegalStateException("billing.session.secret must be at least 32 characters in token mode.");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.ttl = ttl;
+        this.maxLifetime = maxLifetime;
+        this.clock = clock;
+    }
+
+    public Duration getTtl() { return ttl; }
+
+    /** A token for a new login. */
+    public String issue(Long userId, String username, String role) {
+        Instant now = clock.instant();
+        return issue(userId, username, role, now, expiry(now, now));
+    }
+
+    /**
+     * A replacement for a cookie token past half its lifetime, with the same issue time; null
+     * while more than half is left, or once max-lifetime stops it from being extended.
+     */
+    public String refresh(Claims claims) {
+        Instant now = clock.instant();
+        if (Duration.between(now, claims.expiresAt()).compareTo(ttl.dividedBy(2)) >= 0) return null;
+        Instant expires = expiry(claims.issuedAt(), now);
+        if (!expires.isAfter(claims.expiresAt())) return null;
+        return issue(claims.userId(), claims.username(), claims.role(), claims.issuedAt(), expires);
+    }
+
+    /** One ttl from now, but never past max-lifetime from the login. */
+    private Instant expiry(Instant issuedAt, Instant now) {
+        Instant limit = issuedAt.plus(maxLifetime);
+        Instant expires = now.plus(ttl);
+        return expires.isAfter(limit) ? limit : expires;
+    }
+
+    private String issue(Long userId, String username, String role, Instant issuedAt, Instant expiresAt) {
+        String payload = ENCODER.encodeToString((userId + "|" + role + "|" + issuedAt.getEpochSecond() + "|"
+                + expiresAt.getEpochSecond() + "|" + username).getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /** Returns the claims of a well-formed, correctly signed, unexpired token, else null. */
+    public Claims verify(String token) {
+        if (token == null) return null;
+        int dot = token.indexOf('.');
+        if (dot <= 0) return null;
+        String payload = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(payload), DECODER.decode(token.substring(dot + 1)))) return null;
+            String[] parts = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|", 5);
+            if (parts.length != 5) return null;
+            Instant issuedAt = Instant.ofEpochSecond(Long.parseLong(parts[2]));
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[3]));
+            if (!expiresAt.isAfter(clock.instant())) return null;
+            return new Claims(Long.parseLong(parts[0]), parts[4], parts[1], issuedAt, expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Borrows a pooled Mac, creating one when all are in use; doFinal leaves it reset for
+     * the next caller. A Mac returned to a full pool is dropped.
+     */
+    private byte[] sign(String payload) {
+        Mac mac = macs.poll();
+        if (mac == null) mac = newMac();
+        try {
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            macs.offer(mac);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.billing.service;
+
+import com.example.billing.model.Bill;
+import com.example.billing.model.CustomerSummary;
+import com.example.billing.model.DashboardSummary;
+import com.example.billing.model.MonthlyUsage;
+import com.example.billing.repository.ArchivedBillRepository;
+import com.example.billing.repository.BillBatchRepository;
+import com.example.billing.repository.BillRepository;
+import com.example.billing.repository.CustomerRepository;
+import com.example.billing.repository.CustomerSummaryRepository;
+import com.example.billing.repository.DashboardSummaryRepository;
+import com.example.billing.repository.MonthlyUsageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the dashboard summaries (global, per month, per customer).
+ * Writers join the caller's transaction, so a bill and its summary deltas commit together.
+ * The global row is always locked first; that lock orders concurrent writers,
+ * which makes the check-then-insert of a new month or customer row safe. Billing runs
+ * defer their global and monthly deltas (BillingRunService merges them once per run)
+ * and only upsert customer rows, which needs no ordering.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class StatsService {
+
+    @Autowired
+    private DashboardSummaryRepository dashboardSummaryRepository;
+
+    @Autowired
+    private MonthlyUsageRepository monthlyUsageRepository;
+
+    @Autowired
+    private CustomerSummaryRepository customerSummaryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private ArchivedBillRepository archivedBillRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Backfills the summaries on first start against an existing database. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void initialize() {
+        if (!dashboardSummaryRepository.existsById(DashboardSummary.SINGLETON_ID)) {
+            rebuild();
+        }
+    }
+
+    /** Recomputes every summary from the base tables. O(table size) — startup/maintenance only. */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void rebuild() {
+        customerSummaryRepository.deleteAllInBatch();
+        monthlyUsageRepository.deleteAllInBatch();
+        dashboardSummaryRepository.deleteAllInBatch();
+
+        Map<String, MonthlyUsage> months = new LinkedHashMap<>();
+        List<BillRepository.PeriodTotals> totals = new ArrayList<>(billRepository.totalsByMonth());
+        totals.addAll(archivedBillRepository.totalsByMonth());
+        long bills = 0;
+        double units = 0, revenue = 0;
+        for (BillRepository.PeriodTotals t : totals) {
+            months.computeIfAbsent(period(t), p -> new MonthlyUsage(p, 0, 0, 0)).add(t.getBills(), t.getUnits(), t.getAmount());
+            bills   += t.getBills();
+            units   += t.getUnits();
+            revenue += t.getAmount();
+        }
+        monthlyUsageRepository.saveAll(months.values());
+        dashboardSummaryRepository.save(new DashboardSummary(customerRepository.countByDeletedAtIsNull(), bills, units, revenue));
+        customerSummaryRepository.rebuildAll(System.currentTimeMillis());
+        customerSummaryRepository.addArchivedTotals();
+        // the totals above already include the bills of billing run partitions not merged yet
+        jdbcTemplate.update("update billing_run_partitions set merged = true where done = true and merged = false");
+    }
+
+    // ---- Incremental updates ----
+
+    public void recordCustomerAdded(Long customerId) {
+        lockGlobal().add(1, 0, 0, 0);
+        customerSummaryRepository.save(new CustomerSummary(customerId));
+    }
+
+    public void recordBill(Bill bill) {
+        lockGlobal().add(0, 1, bill.getUnitsConsumed(), bill.getAmount());
+        addToMonth(YearMonth.from(bill.getBillDate()).toString(), 1, bill.getUnitsConsumed(), bill.getAmount());
+        customerSummaryRepository.findForUpdateByCustomerId(bill.getCustomer().getId())
+                .orElseGet(() -> customerSummaryRepository.save(new CustomerSummary(bill.getCustomer().getId())))
+                .add(1, bill.getUnitsConsumed(), bill.getAmount());
+    }
+
+    /**
+     * Applies a bulk insert's totals: one delta per customer, all billed on the same date.
+     * Customer rows are upserted with a single JDBC batch, so a customer whose summary row
+     * is missing gets one instead of an update that matches nothing.
+     */
+    public void recordBills(LocalDate billDate, Collection<CustomerSummary> deltas) {
+        long bills = 0;
+        double units = 0, amount = 0;
+        for (CustomerSummary d : deltas) {
+            bills  += d.getBillCount();
+            units  += d.getTotalUnits();
+            amount += d.getTotalAmount();
+        }
+        if (bills == 0) return;
+        addBills(billDate, bills, units, amount);
+        recordCustomerBills(deltas);
+    }
+
+    /** The global and monthly half of recordBills; billing runs apply it once per run. */
+    public void addBills(LocalDate billDate, long bills, double units, double amount) {
+        if (bills == 0) return;
+        lockGlobal().add(0, bills, units, amount);
+        addToMonth(YearMonth.from(billDate).toString(), bills, units, amount);
+    }
+
+    /**
+     * The per-customer half of recordBills. Missing summary rows are inserted first (a no-op
+     * for existing ones), then every row gets its delta; both are JDBC batches in customer
+     * id order. Each row is locked on its own, so this half does not need the global lock. MySQL's VALUES() in
+     * ON DUPLICATE KEY UPDATE is deprecated and H2 lacks the row alias that replaces it.
+     */
+    public void recordCustomerBills(Collection<CustomerSummary> deltas) {
+        long now = System.currentTimeMillis();
+        List<CustomerSummary> rows = new ArrayList<>(deltas);
+        rows.sort(Comparator.comparing(CustomerSummary::getCustomerId));
+        jdbcTemplate.batchUpdate(
+                "insert into customer_summaries (customer_id, bill_count, total_units, total_amount, " +
+                "data_version, last_modified_millis) values (?, 0, 0, 0, 0, ?) " +
+                "on duplicate key update customer_id = customer_id",
+                rows, BillBatchRepository.BATCH_SIZE, (ps, d) -> {
+                    ps.setLong(1, d.getCustomerId());
+                    ps.setLong(2, now);
+                });
+        jdbcTemplate.batchUpdate(
+                "update customer_summaries set bill_count = bill_count + ?, total_units = total_units + ?, " +
+                "total_amount = total_amount + ?, data_version = data_version + 1, last_modified_millis = ? " +
+                "where customer_id = ?",
+                rows, BillBatchRepository.BATCH_SIZE, (ps, d) -> {
+                    ps.setLong(1, d.getBillCount());
+                    ps.setDouble(2, d.getTotalUnits());
+                    ps.setDouble(3, d.getTotalAmount());
+                    ps.setLong(4, now);
+                    ps.setLong(5, d.getCustomerId());
+                });
+    }
+
+    /** Bumps the customer's data version after a change that does not affect the totals (e.g. profile edits). */
+    public void recordCustomerChanged(Long customerId) {
+        customerSummaryRepository.findForUpdateByCustomerId(customerId)
+                .orElseGet(() -> customerSummaryRepository.save(new CustomerSummary(customerId)))
+                .touch();
+    }
+
+    /**
+     * Removes deleted customers (and their bills) from the summaries with set-based reads:
+     * their summary rows give the global deltas and one grouped query over their bills gives
+     * the month deltas. Must run before the bills are purged. Callers flag the customers
+     * deleted first; that share-lock conflict keeps new bills from arriving in between.
+     */
+    public void recordCustomersDeleted(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) return;
+        DashboardSummary global = lockGlobal();
+        long bills = 0;
+        double units = 0, amount = 0;
+        for (CustomerSummary summary : customerSummaryRepository.findAllById(customerIds)) {
+            bills  += summary.getBillCount();
+            units  += summary.getTotalUnits();
+            amount += summary.getTotalAmount();
+        }
+        global.add(-customerIds.size(), -bills, -units, -amount);
+        if (bills > 0) {
+            List<BillRepository.PeriodTotals> totals = new ArrayList<>(billRepository.totalsByMonthForCustomers(customerIds));
+            totals.addAll(archivedBillRepository.totalsByMonthForCustomers(customerIds));
+            for (BillRepository.PeriodTotals t : totals) {
+                addToMonth(period(t), -t.getBills(), -t.getUnits(), -t.getAmount());
+            }
+        }
+        customerSummaryRepository.deleteAllByIdInBatch(customerIds);
+    }
+
+    private DashboardSummary lockGlobal() {
+        return dashboardSummaryRepository.findForUpdateById(DashboardSummary.SINGLETON_ID)
+                .orElseThrow(() -> new IllegalStateException("Dashboard summary has not been initialised."));
+    }
+
+    private void addToMonth(String period, long bills, double units, double revenue) {
+        monthlyUsageRepository.findForUpdateByPeriod(period)
+                .orElseGet(() -> monthlyUsageRepository.save(new MonthlyUsage(period, 0, 0, 0)))
+                .add(bills, units, revenue);
+    }
+
+    private static String period(BillRepository.PeriodTotals t) {
+        return YearMonth.of(t.getYear(), t.getMonth()).toString();
+    }
+
+    // ---- Snapshots ----
+
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Map<String, Object> adminSnapshot() {
+        DashboardSummary s = dashboardSummaryRepository.findById(DashboardSummary.SINGLETON_ID)
+                .orElse(new DashboardSummary(0, 0, 0, 0));
+        List<Map<String, Object>> months = new ArrayList<>();
+        for (MonthlyUsage m : monthlyUsageRepository.findAllByOrderByPeriodAsc()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("period",        m.getPeriod());
+            row.put("billCount",     m.getBillCount());
+            row.put("unitsConsumed", m.getUnitsConsumed());
+            row.put("revenue",       m.getRevenue());
+            months.add(row);
+        }
+        Map<String, Object> res = totals(s);
+        res.put("monthly",       months);
+        return res;
+    }
+
+    /** The headline numbers of adminSnapshot without the monthly breakdown: one primary-key read. */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Map<String, Object> totals() {
+        return totals(dashboardSummaryRepository.findById(DashboardSummary.SINGLETON_ID)
+                .orElse(new DashboardSummary(0, 0, 0, 0)));
+    }
+
+    private static Map<String, Object> totals(DashboardSummary s) {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("customerCount", s.getCustomerCount());
+        res.put("billCount",     s.getBillCount());
+        res.put("totalUnits",    s.getTotalUnits());
+        res.put("totalRevenue",  s.getTotalRevenue());
+        return res;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Map<String, Object> customerSnapshot(Long customerId) {
+        return customerSnapshot(customerSummaryRepository.findById(customerId)
+                .orElse(new CustomerSummary(customerId)));
+    }
+
+    /** customerSnapshot for several customers in one query; customers without a summary are left out. */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Map<Long, Map<String, Object>> customerSnapshots(Collection<Long> customerIds) {
+        Map<Long, Map<String, Object>> res = new HashMap<>();
+        for (CustomerSummary s : customerSummaryRepository.findAllById(customerIds)) {
+            res.put(s.getCustomerId(), customerSnapshot(s));
+        }
+        return res;
+    }
+
+    static Map<String, Object> customerSnapshot(CustomerSummary s) {
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("customerId",  s.getCustomerId());
+        res.put("billCount",   s.getBillCount());
+        res.put("totalUnits",  s.getTotalUnits());
+        res.put("totalAmount", s.getTotalAmount());
+        return res;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.billing.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * All published tariff versions, sorted by effective date. Immutable; TariffService
+ * swaps in a new instance whenever the set of versions changes.
+ */
+final class TariffSchedule {
+
+    static final TariffSchedule EMPTY = new TariffSchedule(new long[0], new CompiledTariff[0]);
+
+    private final long[] effectiveEpochDays;
+    private final CompiledTariff[] tariffs;
+
+    /** Both arrays must be sorted by effective date; a later entry wins on equal dates. */
+    TariffSchedule(long[] effectiveEpochDays, CompiledTariff[] tariffs) {
+        this.effectiveEpochDays = effectiveEpochDays;
+        this.tariffs = tariffs;
+    }
+
+    /** The version in force on the given date. */
+    CompiledTariff forDate(LocalDate date) {
+        long day = date.toEpochDay();
+        int i = Arrays.binarySearch(effectiveEpochDays, day);
+        if (i >= 0) {
+            while (i + 1 < effectiveEpochDays.length && effectiveEpochDays[i + 1] == day) i++;
+        } else {
+            i = -i - 2;
+        }
+        if (i < 0) throw new IllegalStateException("No tariff in force on " + date);
+        return tariffs[i];
+    }
+
+    int size() { return tariffs.length; }
+}
@@ -0,0 +1,111 @@
+package com.example.billing.service;
+
+import com.example.billing.model.Role;
+import com.example.billing.model.Tariff;
+import com.example.billing.model.TariffSlab;
+import com.example.billing.repository.TariffRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the published tariff versions. They live in the tariffs/tariff_slabs tables and
+ * are compiled into an immutable TariffSchedule that is swapped atomically on publish,
+ * so pricing never reads the database or takes a lock.
+ */
+@Service
+@Transactional
+public class TariffService {
+
+    @Autowired
+    private TariffRepository tariffRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<TariffSchedule> schedule = new AtomicReference<>(TariffSchedule.EMPTY);
+
+    /** Seeds the original three-slab tariff on an empty database, then loads the schedule. */
+    @PostConstruct
+    void initialize() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (tariffRepository.count() == 0) {
+                Tariff tariff = new Tariff(LocalDate.of(1970, 1, 1));
+                tariff.addSlab(100L, 350);
+                tariff.addSlab(300L, 500);
+                tariff.addSlab(null, 700);
+                tariffRepository.save(tariff);
+            }
+            reload();
+        });
+    }
+
+    /** Picks up versions published by other nodes. */
+    @Scheduled(fixedDelayString = "${billing.tariff.refresh-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void reload() {
+        List<Tariff> tariffs = tariffRepository.findAllWithSlabs();
+        long[] days = new long[tariffs.size()];
+        CompiledTariff[] compiled = new CompiledTariff[tariffs.size()];
+        for (int i = 0; i < tariffs.size(); i++) {
+            days[i] = tariffs.get(i).getEffectiveFrom().toEpochDay();
+            compiled[i] = CompiledTariff.compile(tariffs.get(i));
+        }
+        schedule.set(new TariffSchedule(days, compiled));
+    }
+
+    /** The tariff in force on the given date. Lock-free. */
+    public CompiledTariff forDate(LocalDate date) {
+        return schedule.get().forDate(date);
+    }
+
+    // ---- Admin ----
+
+    @Transactional(readOnly = true)
+    public List<Tariff> getTariffs(HttpSession session) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        return tariffRepository.findAllWithSlabs();
+    }
+
+    /**
+     * Publishes a new version. upToUnits[i] is the inclusive upper bound of slab i and must
+     * ascend; the last entry must be null (open-ended). The schedule swaps after commit.
+     */
+    public Tariff publish(HttpSession session, LocalDate effectiveFrom, List<Long> upToUnits, List<Long> ratePaise) {
+        SessionHelper.requireRole(session, Role.ADMIN);
+        if (effectiveFrom == null || effectiveFrom.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("effectiveFrom must be today or later.");
+        }
+        if (upToUnits.isEmpty() || upToUnits.get(upToUnits.size() - 1) != null) {
+            throw new IllegalArgumentException("The last slab must have no upper bound.");
+        }
+        Tariff tariff = new Tariff(effectiveFrom);
+        long previous = 0;
+        for (int i = 0; i < upToUnits.size(); i++) {
+            Long upTo = upToUnits.get(i);
+            if (i < upToUnits.size() - 1 && (upTo == null || upTo <= previous)) {
+                throw new IllegalArgumentException("Slab upper bounds must be strictly ascending.");
+            }
+            if (ratePaise.get(i) < 0) {
+                throw new IllegalArgumentException("Rates must not be negative.");
+            }
+            if (ratePaise.get(i) > CompiledTariff.MAX_RATE_PAISE) {
+                throw new IllegalArgumentException("Rates must be at most " + CompiledTariff.MAX_RATE_PAISE + " paise.");
+            }
+            tariff.addSlab(upTo, ratePaise.get(i));
+            if (upTo != null) previous = upTo;
+        }
+        tariffRepository.save(tariff);
+        AfterCommit.run(this::reload);
+        return tariff;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.billing.service;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Request-scoped HttpSession backed by a verified session token instead of server state.
+ * Services and SessionHelper use it exactly like a servlet session; nothing outlives the
+ * request. Login calls issue() to sign the attributes into a cookie, logout clears it.
+ */
+public class TokenSession implements HttpSession {
+
+    public static final String COOKIE_NAME = "BILLING_SESSION";
+
+    private final SessionTokens tokens;
+    private final HttpServletResponse response;
+    private final ServletContext servletContext;
+    private final boolean secureCookie;
+    private final long createdAt = System.currentTimeMillis();
+    private final String id = UUID.randomUUID().toString();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final boolean isNew;
+
+    public TokenSession(SessionTokens tokens, SessionTokens.Claims claims, HttpServletResponse response,
+                        ServletContext servletContext, boolean secureCookie) {
+        this.tokens = tokens;
+        this.response = response;
+        this.servletContext = servletContext;
+        this.secureCookie = secureCookie;
+        this.isNew = claims == null;
+        if (claims != null) {
+            attributes.put(SessionHelper.SESSION_USER_ID,  claims.userId());
+            attributes.put(SessionHelper.SESSION_USERNAME, claims.username());
+            attributes.put(SessionHelper.SESSION_ROLE,     claims.role());
+        }
+    }
+
+    /** Signs the current user attributes, sets the session cookie and returns the token. */
+    public String issue() {
+        String token = tokens.issue((Long) attributes.get(SessionHelper.SESSION_USER_ID),
+                (String) attributes.get(SessionHelper.SESSION_USERNAME),
+                (String) attributes.get(SessionHelper.SESSION_ROLE));
+        writeCookie(response, token, tokens.getTtl(), secureCookie);
+        return token;
+    }
+
+    static void writeCookie(HttpServletResponse response, String value, Duration maxAge, boolean secure) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true).secure(secure).sameSite("Lax").path("/").maxAge(maxAge).build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    /** Re-issues the cookie of a valid token when SessionTokens.refresh allows; used for sliding expiry. */
+    public static void refresh(SessionTokens tokens, SessionTokens.Claims claims,
+                               HttpServletResponse response, boolean secure) {
+        String token = tokens.refresh(claims);
+        if (token != null) writeCookie(response, token, tokens.getTtl(), secure);
+    }
+
+    @Override public long getCreationTime()                   { return createdAt; }
+    @Override public String getId()                           { return id; }
+    @Override public long getLastAccessedTime()               { return createdAt; }
+    @Override public ServletContext getServletContext()       { return servletContext; }
+    @Override public void setMaxInactiveInterval(int seconds) { }
+    @Override public int getMaxInactiveInterval()             { return (int) tokens.getTtl().toSeconds(); }
+    @Override public Object getAttribute(String name)         { return attributes.get(name); }
+    @Override public Enumeration<String> getAttributeNames()  { return Collections.enumeration(attributes.keySet()); }
+    @Override public void setAttribute(String name, Object v) { attributes.put(name, v); }
+    @Override public void removeAttribute(String name)        { attributes.remove(name); }
+    @Override public boolean isNew()                          { return isNew; }
+
+    /**
+     * Clears the cookie. Tokens already handed out stay valid until they expire, and can
+     * no longer be refreshed past billing.session.max-lifetime from their login.
+     */
+    @Override
+    public void invalidate() {
+        attributes.clear();
+        writeCookie(response, "", Duration.ZERO, secureCookie);
+    }
+}
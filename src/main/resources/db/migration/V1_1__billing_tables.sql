@@ -0,0 +1,83 @@
+-- Tables and columns behind the dashboard summaries, tariffs, meter readings and
+-- billing runs. Version 1.1 so that it runs before the V2 indexes on them, also on
+-- databases baselined at V1.
+
+alter table bills add column tariff_version bigint;
+alter table bills add column billing_period varchar(7);
+alter table bills add constraint uk_bill_customer_period unique (customer_id, billing_period);
+
+create table dashboard_summary (
+    id             bigint not null,
+    customer_count bigint not null,
+    bill_count     bigint not null,
+    total_units    float(53) not null,
+    total_revenue  float(53) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table monthly_usage (
+    period         varchar(7) not null,
+    bill_count     bigint not null,
+    units_consumed float(53) not null,
+    revenue        float(53) not null,
+    primary key (period)
+) engine=InnoDB;
+
+create table customer_summaries (
+    customer_id          bigint not null,
+    bill_count           bigint not null,
+    total_units          float(53) not null,
+    total_amount         float(53) not null,
+    data_version         bigint not null,
+    last_modified_millis bigint not null,
+    primary key (customer_id)
+) engine=InnoDB;
+
+create table tariffs (
+    id             bigint not null auto_increment,
+    effective_from date not null,
+    published_at   datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table tariff_slabs (
+    id          bigint not null auto_increment,
+    tariff_id   bigint not null,
+    position    integer not null,
+    up_to_units bigint,
+    rate_paise  bigint not null,
+    primary key (id),
+    constraint fk_tariff_slabs_tariff foreign key (tariff_id) references tariffs (id)
+) engine=InnoDB;
+
+create table meter_readings (
+    id             bigint not null auto_increment,
+    customer_id    bigint not null,
+    period         varchar(7) not null,
+    units_consumed float(53) not null,
+    primary key (id),
+    constraint uk_reading_customer_period unique (period, customer_id)
+) engine=InnoDB;
+
+create table billing_runs (
+    id                   bigint not null auto_increment,
+    period               varchar(7) not null,
+    status               enum ('RUNNING','COMPLETED') not null,
+    started_at           datetime(6) not null,
+    finished_at          datetime(6),
+    total_partitions     integer not null,
+    completed_partitions integer not null,
+    bills_created        bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table billing_run_partitions (
+    id            bigint not null auto_increment,
+    run_id        bigint not null,
+    low_id        bigint not null,
+    high_id       bigint not null,
+    done          bit not null,
+    bills_created bigint not null,
+    completed_at  datetime(6),
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,34 @@
+-- The users, customers and bills tables as ddl-auto=update used to create them.
+-- Databases created that way are baselined at this version, so it must not change;
+-- everything added since lives in later migrations.
+
+create table users (
+    id       bigint not null auto_increment,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    role     enum ('ADMIN','CUSTOMER') not null,
+    primary key (id),
+    constraint uk_users_username unique (username)
+) engine=InnoDB;
+
+create table customers (
+    id      bigint not null auto_increment,
+    name    varchar(255) not null,
+    email   varchar(255) not null,
+    address varchar(255) not null,
+    user_id bigint,
+    primary key (id),
+    constraint uk_customers_email unique (email),
+    constraint uk_customers_user unique (user_id),
+    constraint fk_customers_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create table bills (
+    id             bigint not null auto_increment,
+    customer_id    bigint not null,
+    units_consumed float(53) not null,
+    amount         float(53) not null,
+    bill_date      date not null,
+    primary key (id),
+    constraint fk_bills_customer foreign key (customer_id) references customers (id)
+) engine=InnoDB;
@@ -0,0 +1,16 @@
+-- Indexes for the hot queries in BillRepository, MeterReadingRepository and
+-- BillingRunPartitionRepository. Lookups by email, username, user_id,
+-- (customer_id, billing_period) and (period, customer_id) use the V1 and V1.1 unique keys.
+
+-- A customer's bills newest first (keyset page), per-customer monthly totals.
+-- Covers the bill columns of the listing projection, so pages never touch the table rows.
+create index idx_bills_customer_date on bills (customer_id, bill_date, id, units_consumed, amount);
+
+-- Admin listing newest first, date-range filters and exports.
+create index idx_bills_date on bills (bill_date, id);
+
+-- Unfinished partitions of a run in id order.
+create index idx_partitions_run_pending on billing_run_partitions (run_id, done, low_id);
+
+-- Runs by status (startup resume) and the running run for a period.
+create index idx_billing_runs_status on billing_runs (status, period);
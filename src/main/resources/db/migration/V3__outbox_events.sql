@@ -0,0 +1,19 @@
+-- Transactional outbox: events written in the same transaction as the change that
+-- caused them, delivered afterwards by OutboxDispatcher.
+create table outbox_events (
+    id              bigint not null auto_increment,
+    event_type      varchar(64) not null,
+    aggregate_id    bigint not null,
+    payload         varchar(2000) not null,
+    status          enum ('PENDING','DONE','FAILED') not null,
+    attempts        integer not null,
+    created_at      datetime(6) not null,
+    next_attempt_at datetime(6) not null,
+    processed_at    datetime(6),
+    last_error      varchar(500),
+    primary key (id)
+) engine=InnoDB;
+
+-- Due events in delivery order (dispatcher claim), done events by age (retention purge).
+create index idx_outbox_due on outbox_events (status, next_attempt_at, id);
+create index idx_outbox_processed on outbox_events (status, processed_at);
@@ -0,0 +1,5 @@
+-- Deleted customers are flagged first and purged (bills, readings, row) in the background.
+alter table customers add column deleted_at datetime(6);
+
+-- The purge job's scan for flagged customers.
+create index idx_customers_deleted on customers (deleted_at);
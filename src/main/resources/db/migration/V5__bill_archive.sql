@@ -0,0 +1,28 @@
+-- Cold tier: bills older than billing.archive.horizon-months are moved here by
+-- BillArchiveService, keeping their ids. No foreign key, so the customer purge deletes
+-- archived rows itself.
+create table bills_archive (
+    id             bigint not null,
+    customer_id    bigint not null,
+    units_consumed float(53) not null,
+    amount         float(53) not null,
+    bill_date      date not null,
+    tariff_version bigint,
+    billing_period varchar(7),
+    primary key (id),
+    constraint uk_bill_archive_customer_period unique (customer_id, billing_period)
+) engine=InnoDB;
+
+-- Same access paths as the hot table (V2): per-customer pages and totals, listings by date.
+create index idx_bills_archive_customer_date on bills_archive (customer_id, bill_date, id, units_consumed, amount);
+create index idx_bills_archive_date on bills_archive (bill_date, id);
+
+-- Watermark: every archived bill has bill_date < archived_before. Listings whose page
+-- stays at or above it never read the archive.
+create table bill_archive_state (
+    id              integer not null,
+    archived_before date not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into bill_archive_state (id, archived_before) values (1, '1970-01-01');
@@ -0,0 +1,29 @@
+-- Running consumption statistics per customer (Welford: count, mean, sum of squared
+-- deviations). month_of_year 0 covers every bill; 1-12 are the seasonal baselines for
+-- bills dated in that calendar month. Updated with each bill by ConsumptionStatsService.
+create table consumption_stats (
+    customer_id    bigint not null,
+    month_of_year  tinyint not null,
+    bill_count     bigint not null,
+    mean_units     float(53) not null,
+    m2_units       float(53) not null,
+    last_units     float(53),
+    last_bill_date date,
+    primary key (customer_id, month_of_year)
+) engine=InnoDB;
+
+-- Bills whose units deviated from the customer's baseline when they were generated.
+-- Keyed by bill id (kept when a bill is archived); no foreign keys, the customer purge
+-- deletes these rows itself.
+create table bill_anomalies (
+    bill_id        bigint not null,
+    customer_id    bigint not null,
+    bill_date      date not null,
+    units_consumed float(53) not null,
+    expected_units float(53) not null,
+    std_dev        float(53) not null,
+    score          float(53) not null,
+    primary key (bill_id)
+) engine=InnoDB;
+
+create index idx_bill_anomalies_customer on bill_anomalies (customer_id);
@@ -0,0 +1,10 @@
+-- Billing run partitions keep the totals of the bills they created. The run adds them
+-- to the dashboard and monthly summaries once, instead of every partition holding the
+-- global summary row locked until it commits.
+alter table billing_run_partitions add column bill_date date;
+alter table billing_run_partitions add column total_units float(53) not null default 0;
+alter table billing_run_partitions add column total_amount float(53) not null default 0;
+alter table billing_run_partitions add column merged bit not null default 0;
+
+-- Partitions finished before this version updated the summaries in their own transaction.
+update billing_run_partitions set merged = done;
@@ -0,0 +1,6 @@
+-- One row per billing period, locked by BillingRunService.startRun so that two requests
+-- for the same period cannot both find no RUNNING run and each start one.
+create table billing_run_periods (
+    period varchar(7) not null,
+    primary key (period)
+) engine=InnoDB;
@@ -0,0 +1,19 @@
+-- Local stand-in for a read replica: a second in-memory H2 database whose tables are
+-- read-only links to the load-test primary (always in sync, so no lag). Any write
+-- routed here fails, which makes misrouted transactions obvious. Used by the "replica" profile.
+create linked table if not exists users('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'USERS') readonly;
+create linked table if not exists customers('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'CUSTOMERS') readonly;
+create linked table if not exists bills('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'BILLS') readonly;
+create linked table if not exists bills_archive('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'BILLS_ARCHIVE') readonly;
+create linked table if not exists bill_archive_state('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'BILL_ARCHIVE_STATE') readonly;
+create linked table if not exists dashboard_summary('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'DASHBOARD_SUMMARY') readonly;
+create linked table if not exists monthly_usage('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'MONTHLY_USAGE') readonly;
+create linked table if not exists customer_summaries('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'CUSTOMER_SUMMARIES') readonly;
+create linked table if not exists tariffs('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'TARIFFS') readonly;
+create linked table if not exists tariff_slabs('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'TARIFF_SLABS') readonly;
+create linked table if not exists meter_readings('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'METER_READINGS') readonly;
+create linked table if not exists billing_runs('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'BILLING_RUNS') readonly;
+create linked table if not exists billing_run_partitions('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'BILLING_RUN_PARTITIONS') readonly;
+create linked table if not exists outbox_events('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'OUTBOX_EVENTS') readonly;
+create linked table if not exists consumption_stats('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'CONSUMPTION_STATS') readonly;
+create linked table if not exists bill_anomalies('org.h2.Driver', 'jdbc:h2:mem:loadtest', 'sa', '', 'PUBLIC', 'BILL_ANOMALIES') readonly;
@@ -64,36 +64,137 @@ function setNavUser(username, role) {
   el.innerHTML = `👤 ${username} &nbsp;${badge}`;
 }
 
+/* ---- Keyset pagination helpers ----
+   List endpoints return { items, nextCursor, limit }; pass nextCursor back to get the next page.
+*/
+function withCursor(url, cursor) {
+  if (!cursor) return url;
+  return url + (url.includes('?') ? '&' : '?') + 'cursor=' + encodeURIComponent(cursor);
+}
+
+function setLoadMore(buttonId, nextCursor) {
+  const btn = document.getElementById(buttonId);
+  if (btn) btn.classList.toggle('d-none', !nextCursor);
+}
+
+/* ---- Live updates (server-sent events) ----
+   handlers: { eventName: fn(data) }. Events sent while the stream was down are lost, so
+   'resync' also runs after EventSource reconnects; it should reload what the page shows.
+   Pages connect before their first load, so no change falls between the two.
+*/
+function liveConnect(url, handlers) {
+  if (!window.EventSource) return null;
+  const source = new EventSource(url);
+  let interrupted = false;
+  source.onerror = () => { interrupted = true; };
+  source.onopen  = () => { if (interrupted && handlers.resync) handlers.resync(); interrupted = false; };
+  for (const [name, fn] of Object.entries(handlers)) {
+    source.addEventListener(name, ev => fn(JSON.parse(ev.data)));
+  }
+  return source;
+}
+
+/* Adds a row on top unless a row with the same data-id is shown; drops the "No ... found" row. */
+function prependRow(tbodyId, id, html) {
+  const tb = document.getElementById(tbodyId);
+  if (!tb || tb.querySelector(`tr[data-id="${id}"]`)) return;
+  tb.querySelectorAll('tr:not([data-id])').forEach(r => r.remove());
+  tb.insertAdjacentHTML('afterbegin', html);
+}
+
 /* ====================================================
    ADMIN FUNCTIONS
    ==================================================== */
 
-async function adminLoadCustomers() {
+let adminCustomersCursor = null;
+
+async function adminLoadCustomers(append = false) {
   try {
-    const list = await apiFetch('/api/admin/customers');
-    renderAdminCustomers(list);
-    // Populate dropdown on bills page
-    const sel = document.getElementById('billCustomerSelect');
-    if (sel) {
-      sel.innerHTML = '<option value="">— Select customer —</option>';
-      list.forEach(c => { sel.innerHTML += `<option value="${c.id}">${c.name} (ID: ${c.id})</option>`; });
-    }
-    return list;
+    const page = await apiFetch(withCursor('/api/admin/customers', append ? adminCustomersCursor : null));
+    adminCustomersCursor = page.nextCursor;
+    renderAdminCustomers(page.items, append);
+    setLoadMore('customersLoadMore', page.nextCursor);
+    return page.items;
   } catch (e) { showAlert('Failed to load customers: ' + e.message, 'danger'); return []; }
 }
 
-function renderAdminCustomers(list) {
+/* Customer typeahead on the bills page: queries /api/admin/customers/search as the admin types. */
+let customerSearchTimer = null;
+let customerSearchSeq = 0;
+
+function adminInitCustomerTypeahead() {
+  const input = document.getElementById('billCustomerSearch');
+  const list  = document.getElementById('billCustomerResults');
+  if (!input || !list) return;
+  input.addEventListener('input', () => {
+    document.getElementById('billCustomerId').value = '';
+    clearTimeout(customerSearchTimer);
+    customerSearchTimer = setTimeout(() => adminSearchCustomers(input.value.trim()), 150);
+  });
+  input.addEventListener('blur', () => setTimeout(() => { list.innerHTML = ''; }, 200));
+}
+
+async function adminSearchCustomers(q) {
+  const list = document.getElementById('billCustomerResults');
+  const seq  = ++customerSearchSeq;
+  if (!q) { list.innerHTML = ''; return; }
+  try {
+    const hits = await apiFetch('/api/admin/customers/search?limit=8&q=' + encodeURIComponent(q));
+    if (seq !== customerSearchSeq) return;   // a newer keystroke already answered
+    list.innerHTML = hits.length
+      ? hits.map(c => `
+          <button type="button" class="list-group-item list-group-item-action py-1"
+                  onclick="adminPickCustomer(${c.id}, this.dataset.label)" data-label="${c.name} (ID: ${c.id})">
+            <div class="fw-semibold">${c.name} <span class="text-muted small">#${c.id}</span></div>
+            <div class="small text-muted">${c.email} · ${c.address}</div>
+          </button>`).join('')
+      : '<div class="list-group-item small text-muted">No matching customers</div>';
+  } catch (e) { showAlert('Customer search failed: ' + e.message, 'danger'); }
+}
+
+function adminPickCustomer(id, label) {
+  document.getElementById('billCustomerId').value = id;
+  document.getElementById('billCustomerSearch').value = label;
+  document.getElementById('billCustomerResults').innerHTML = '';
+}
+
+function renderAdminCustomers(list, append = false) {
   const tb = document.getElementById('customersTableBody');
   if (!tb) return;
-  if (!list.length) { tb.innerHTML = '<tr><td colspan="5" class="text-center text-muted py-3">No customers found</td></tr>'; return; }
-  tb.innerHTML = list.map(c => `
-    <tr>
+  if (!list.length && !append) { tb.innerHTML = '<tr><td colspan="5" class="text-center text-muted py-3">No customers found</td></tr>'; return; }
+  const rows = list.map(adminCustomerRow).join('');
+  if (append) tb.insertAdjacentHTML('beforeend', rows); else tb.innerHTML = rows;
+}
+
+function adminCustomerRow(c) {
+  return `
+    <tr data-id="${c.id}">
       <td>${c.id}</td>
       <td>${c.name}</td>
       <td>${c.email}</td>
       <td>${c.address}</td>
       <td><button class="btn btn-danger btn-sm" onclick="adminDeleteCustomer(${c.id})">🗑 Delete</button></td>
-    </tr>`).join('');
+    </tr>`;
+}
+
+/* Customers are listed oldest first, so a new one belongs at the end once the last page is shown. */
+function adminShowNewCustomer(c) {
+  const tb = document.getElementById('customersTableBody');
+  if (!tb || adminCustomersCursor || tb.querySelector(`tr[data-id="${c.id}"]`)) return;
+  tb.querySelectorAll('tr:not([data-id])').forEach(r => r.remove());
+  tb.insertAdjacentHTML('beforeend', adminCustomerRow(c));
+}
+
+function adminRemoveCustomers(ids) {
+  ids.forEach(id => document.querySelector(`#customersTableBody tr[data-id="${id}"]`)?.remove());
+}
+
+function adminLiveCustomers() {
+  liveConnect('/api/admin/events', {
+    'customer-added':    adminShowNewCustomer,
+    'customers-deleted': e => adminRemoveCustomers(e.ids),
+    resync:              () => adminLoadCustomers()
+  });
 }
 
 async function adminAddCustomer(e) {
@@ -102,10 +203,10 @@ async function adminAddCustomer(e) {
   const email   = document.getElementById('custEmail').value.trim();
   const address = document.getElementById('custAddress').value.trim();
   try {
-    await apiFetch('/api/admin/customers', 'POST', { name, email, address });
+    const c = await apiFetch('/api/admin/customers', 'POST', { name, email, address });
     showAlert('Customer added!', 'success');
     document.getElementById('customerForm').reset();
-    await adminLoadCustomers();
+    adminShowNewCustomer(c);
   } catch (e) { showAlert('Error: ' + e.message, 'danger'); }
 }
 
@@ -114,45 +215,64 @@ async function adminDeleteCustomer(id) {
   try {
     await apiFetch('/api/admin/customers/' + id, 'DELETE');
     showAlert('Customer deleted.', 'success');
-    await adminLoadCustomers();
+    adminRemoveCustomers([id]);
   } catch (e) { showAlert('Error: ' + e.message, 'danger'); }
 }
 
-async function adminLoadBills() {
+let adminBillsCursor = null;
+
+async function adminLoadBills(append = false) {
   try {
-    const list = await apiFetch('/api/admin/bills');
-    renderAdminBills(list);
-    return list;
+    const page = await apiFetch(withCursor('/api/admin/bills', append ? adminBillsCursor : null));
+    adminBillsCursor = page.nextCursor;
+    renderAdminBills(page.items, append);
+    setLoadMore('billsLoadMore', page.nextCursor);
+    return page.items;
   } catch (e) { showAlert('Failed to load bills: ' + e.message, 'danger'); return []; }
 }
 
-function renderAdminBills(list) {
+function renderAdminBills(list, append = false) {
   const tb = document.getElementById('billsTableBody');
   if (!tb) return;
-  if (!list.length) { tb.innerHTML = '<tr><td colspan="6" class="text-center text-muted py-3">No bills found</td></tr>'; return; }
-  tb.innerHTML = list.map(b => `
-    <tr>
+  if (!list.length && !append) { tb.innerHTML = '<tr><td colspan="6" class="text-center text-muted py-3">No bills found</td></tr>'; return; }
+  const rows = list.map(adminBillRow).join('');
+  if (append) tb.insertAdjacentHTML('beforeend', rows); else tb.innerHTML = rows;
+}
+
+function adminBillRow(b) {
+  return `
+    <tr data-id="${b.id}">
       <td>${b.id}</td>
-      <td>${b.customer ? b.customer.name : 'N/A'}</td>
+      <td>${b.customerName}</td>
       <td>${b.unitsConsumed}</td>
       <td>₹${b.amount.toFixed(2)}</td>
       <td>${b.billDate}</td>
       <td><span class="badge bg-success">Generated</span></td>
-    </tr>`).join('');
+    </tr>`;
+}
+
+/* Single bills arrive as rows; a batch arrives as a summary, since it may be thousands of rows. */
+function adminLiveBills() {
+  liveConnect('/api/admin/events', {
+    bill:   b => prependRow('billsTableBody', b.id, adminBillRow(b)),
+    bills:  s => showAlert(`${s.count} bills generated (₹${s.amount.toFixed(2)}). `
+                 + '<a href="#" onclick="adminLoadBills(); return false;">Show them</a>', 'info'),
+    resync: () => adminLoadBills()
+  });
 }
 
 async function adminGenerateBill(e) {
   e.preventDefault();
-  const customerId    = document.getElementById('billCustomerSelect') 
-      ? document.getElementById('billCustomerSelect').value 
-      : document.getElementById('billCustomerId').value;
+  const customerId    = document.getElementById('billCustomerId').value;
   const unitsConsumed = parseFloat(document.getElementById('billUnits').value);
   if (!customerId) { showAlert('Please select a customer', 'warning'); return; }
   try {
-    await apiFetch('/api/admin/bills', 'POST', { customerId: Number(customerId), unitsConsumed });
+    const b = await apiFetch('/api/admin/bills', 'POST', { customerId: Number(customerId), unitsConsumed });
     showAlert('Bill generated!', 'success');
     document.getElementById('billForm').reset();
-    await adminLoadBills();
+    document.getElementById('billCustomerId').value = '';
+    // the same bill also arrives on the live stream; prependRow keeps one copy
+    prependRow('billsTableBody', b.id, adminBillRow({ ...b, customerName: b.customer.name }));
   } catch (e) { showAlert('Error: ' + e.message, 'danger'); }
 }
 
@@ -161,57 +281,104 @@ async function adminGenerateBill(e) {
    ==================================================== */
 async function adminLoadStats() {
   try {
-    const [customers, bills] = await Promise.all([
-      apiFetch('/api/admin/customers'),
-      apiFetch('/api/admin/bills')
-    ]);
-    const revenue = bills.reduce((s, b) => s + b.amount, 0);
-    const elC = document.getElementById('statCustomers');
-    const elB = document.getElementById('statBills');
-    const elR = document.getElementById('statRevenue');
-    if (elC) elC.textContent = customers.length;
-    if (elB) elB.textContent = bills.length;
-    if (elR) elR.textContent = '₹' + revenue.toFixed(2);
+    renderAdminStats(await apiFetch('/api/admin/stats'));
   } catch (e) { console.error(e); }
 }
 
+function renderAdminStats(stats) {
+  const elC = document.getElementById('statCustomers');
+  const elB = document.getElementById('statBills');
+  const elR = document.getElementById('statRevenue');
+  if (elC) elC.textContent = stats.customerCount;
+  if (elB) elB.textContent = stats.billCount;
+  if (elR) elR.textContent = '₹' + stats.totalRevenue.toFixed(2);
+}
+
+/* Running totals are pushed (coalesced server-side) instead of re-reading /api/admin/stats. */
+function adminLiveDashboard() {
+  liveConnect('/api/admin/events', { totals: renderAdminStats, resync: adminLoadStats });
+}
+
 /* ====================================================
    CUSTOMER FUNCTIONS
    ==================================================== */
 async function customerLoadProfile() {
   try {
-    const p  = await apiFetch('/api/customer/profile');
-    const el = document.getElementById('profileCard');
-    if (!el) return;
-    el.innerHTML = `
-      <div class="row">
-        <div class="col-6"><strong>Name:</strong></div>      <div class="col-6">${p.name}</div>
-        <div class="col-6 mt-2"><strong>Email:</strong></div><div class="col-6 mt-2">${p.email}</div>
-        <div class="col-6 mt-2"><strong>Address:</strong></div><div class="col-6 mt-2">${p.address}</div>
-        <div class="col-6 mt-2"><strong>Customer ID:</strong></div><div class="col-6 mt-2">${p.id}</div>
-      </div>`;
+    renderCustomerProfile(await apiFetch('/api/customer/profile'));
   } catch (e) { showAlert('Failed to load profile: ' + e.message, 'danger'); }
 }
 
-async function customerLoadBills() {
+function renderCustomerProfile(p) {
+  const el = document.getElementById('profileCard');
+  if (!el) return;
+  el.innerHTML = `
+    <div class="row">
+      <div class="col-6"><strong>Name:</strong></div>      <div class="col-6">${p.name}</div>
+      <div class="col-6 mt-2"><strong>Email:</strong></div><div class="col-6 mt-2">${p.email}</div>
+      <div class="col-6 mt-2"><strong>Address:</strong></div><div class="col-6 mt-2">${p.address}</div>
+      <div class="col-6 mt-2"><strong>Customer ID:</strong></div><div class="col-6 mt-2">${p.id}</div>
+    </div>`;
+}
+
+/* First paint of the customer dashboard: profile, stats and bills in one request. */
+async function customerLoadDashboard() {
+  try {
+    const d = await apiFetch('/api/customer/dashboard');
+    renderCustomerProfile(d.profile);
+    renderCustomerStats(d.stats);
+    renderCustomerBills(d.bills, false);
+  } catch (e) { showAlert('Failed to load dashboard: ' + e.message, 'danger'); }
+}
+
+let customerBillsCursor = null;
+
+async function customerLoadBills(append = false) {
   try {
-    const list = await apiFetch('/api/customer/bills');
-    const tb   = document.getElementById('myBillsTableBody');
-    if (!tb) return;
-    if (!list.length) { tb.innerHTML = '<tr><td colspan="5" class="text-center text-muted py-3">No bills yet</td></tr>'; return; }
-    tb.innerHTML = list.map(b => `
-      <tr>
-        <td>${b.id}</td>
-        <td>${b.unitsConsumed}</td>
-        <td>₹${b.amount.toFixed(2)}</td>
-        <td>${b.billDate}</td>
-        <td><span class="badge bg-success">Generated</span></td>
-      </tr>`).join('');
-    // Stats card
-    const total = list.reduce((s, b) => s + b.amount, 0);
-    const elB = document.getElementById('statMyBills');
-    const elA = document.getElementById('statMyAmount');
-    if (elB) elB.textContent = list.length;
-    if (elA) elA.textContent = '₹' + total.toFixed(2);
+    const page = await apiFetch(withCursor('/api/customer/bills', append ? customerBillsCursor : null));
+    renderCustomerBills(page, append);
   } catch (e) { showAlert('Failed to load bills: ' + e.message, 'danger'); }
 }
+
+function renderCustomerBills(page, append) {
+  const list = page.items;
+  customerBillsCursor = page.nextCursor;
+  setLoadMore('myBillsLoadMore', page.nextCursor);
+  const tb   = document.getElementById('myBillsTableBody');
+  if (!tb) return;
+  if (!list.length && !append) { tb.innerHTML = '<tr><td colspan="5" class="text-center text-muted py-3">No bills yet</td></tr>'; return; }
+  const rows = list.map(customerBillRow).join('');
+  if (append) tb.insertAdjacentHTML('beforeend', rows); else tb.innerHTML = rows;
+}
+
+function customerBillRow(b) {
+  return `
+    <tr data-id="${b.id}">
+      <td>${b.id}</td>
+      <td>${b.unitsConsumed}</td>
+      <td>₹${b.amount.toFixed(2)}</td>
+      <td>${b.billDate}</td>
+      <td><span class="badge bg-success">Generated</span></td>
+    </tr>`;
+}
+
+async function customerLoadStats() {
+  try {
+    renderCustomerStats(await apiFetch('/api/customer/stats'));
+  } catch (e) { console.error(e); }
+}
+
+function renderCustomerStats(stats) {
+  const elB = document.getElementById('statMyBills');
+  const elA = document.getElementById('statMyAmount');
+  if (elB) elB.textContent = stats.billCount;
+  if (elA) elA.textContent = '₹' + stats.totalAmount.toFixed(2);
+}
+
+/* New bills and the updated totals are pushed while the dashboard is open. */
+function customerLiveDashboard() {
+  liveConnect('/api/customer/events', {
+    bill:   b => prependRow('myBillsTableBody', b.id, customerBillRow(b)),
+    totals: renderCustomerStats,
+    resync: customerLoadDashboard
+  });
+}
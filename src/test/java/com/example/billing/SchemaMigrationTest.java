@@ -0,0 +1,53 @@
+package com.example.billing;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database created by ddl-auto=update before the migrations existed holds only users,
+ * customers and bills. Baselined at V1 (as application.properties does), it must end up
+ * with every later table and column, and keep its rows.
+ */
+class SchemaMigrationTest {
+
+    @Test
+    void baselinedPreMigrationDatabaseGetsEveryLaterObject() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql"))
+                .execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into users (id, username, password, role) values (1, 'old', 'x', 'CUSTOMER')");
+        jdbc.update("insert into customers (id, name, email, address, user_id) values (1, 'Old', 'old@example.com', 'Here', 1)");
+        jdbc.update("insert into bills (customer_id, units_consumed, amount, bill_date) values (1, 120, 540, date '2025-01-31')");
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+        MigrateResult result = flyway.migrate();
+
+        assertThat(result.migrations).extracting(m -> m.version).first().isEqualTo("1.1");
+        flyway.validate();
+        List<String> tables = jdbc.queryForList(
+                "select lower(table_name) from information_schema.tables where table_schema = 'PUBLIC'", String.class);
+        assertThat(tables).contains("dashboard_summary", "monthly_usage", "customer_summaries", "tariffs",
+                "tariff_slabs", "meter_readings", "billing_runs", "billing_run_partitions", "billing_run_periods",
+                "outbox_events", "bills_archive", "bill_archive_state", "consumption_stats", "bill_anomalies");
+        assertThat(jdbc.queryForObject(
+                "select count(*) from bills where billing_period is null and tariff_version is null", Integer.class))
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.billing;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots Hibernate with ddl-auto=validate, as production does, on the schema the migrations
+ * build. The test and loadtest profiles run with ddl-auto=none, so an entity that drifts
+ * from the migrations would otherwise only fail at deployment.
+ *
+ * One difference is expected: @Enumerated(STRING) columns are MySQL enums in the
+ * migrations, which H2 reports as OTHER while its dialect expects varchar. Those columns
+ * are listed below and turned into varchar after migrating; every other column is still
+ * checked by name and type.
+ */
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@ActiveProfiles("test")
+class SchemaValidationTest {
+
+    /** Every enum column in the migrations, as table.column. */
+    private static final List<String> ENUM_COLUMNS = List.of("users.role", "billing_runs.status", "outbox_events.status");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TestConfiguration
+    static class EnumColumnsAsVarchar {
+
+        @Bean
+        FlywayMigrationStrategy migrateThenRelaxEnums() {
+            return flyway -> {
+                flyway.migrate();
+                JdbcTemplate jdbc = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                assertThat(jdbc.queryForList("select lower(table_name || '.' || column_name) from information_schema.columns " +
+                        "where table_schema = 'PUBLIC' and data_type = 'ENUM'", String.class))
+                        .containsExactlyInAnyOrderElementsOf(ENUM_COLUMNS);
+                for (String column : ENUM_COLUMNS) {
+                    String[] parts = column.split("\\.");
+                    jdbc.execute("alter table " + parts[0] + " alter column " + parts[1] + " set data type varchar(255)");
+                }
+            };
+        }
+    }
+
+    @Test
+    void entitiesMatchTheMigratedSchema() {
+        // the context only starts if validation passed
+        assertThat(entityManagerFactory.getMetamodel().getEntities()).isNotEmpty();
+    }
+}
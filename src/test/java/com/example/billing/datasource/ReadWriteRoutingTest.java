@@ -0,0 +1,118 @@
+package com.example.billing.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing with the local replica of the "replica" profile: a second H2 database whose
+ * tables link to the primary, which therefore has to be named loadtest. Each statement
+ * reports the database it ran on.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "billing.datasource.replica.max-lag=1s"
+})
+@ActiveProfiles({"test", "replica"})
+@DirtiesContext
+class ReadWriteRoutingTest {
+
+    private static final String PRIMARY = "LOADTEST";
+    private static final String REPLICA = "REPLICA";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        double before = connections("replica");
+
+        assertThat(database(true)).isEqualTo(REPLICA);
+        // the linked tables serve the primary's data
+        Long tariffs = readOnly().execute(s -> jdbcTemplate.queryForObject("select count(*) from tariffs", Long.class));
+        assertThat(tariffs).isPositive();
+        assertThat(connections("replica")).isEqualTo(before + 2);
+    }
+
+    @Test
+    void readWriteTransactionsAndPlainStatementsUseThePrimary() {
+        assertThat(database(false)).isEqualTo(PRIMARY);
+        assertThat(jdbcTemplate.queryForObject("select database()", String.class)).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void clientThatWroteReadsFromThePrimaryForTheLagWindow() throws Exception {
+        List<String> routes = new ArrayList<>();
+        MockHttpServletResponse wrote = request(null, () -> {
+            routes.add(database(true));
+            routes.add(database(false));
+            // later reads of the request that wrote are pinned too
+            routes.add(database(true));
+        });
+        assertThat(routes).containsExactly(REPLICA, PRIMARY, PRIMARY);
+        Cookie cookie = wrote.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+        assertThat(Long.parseLong(cookie.getValue()) - System.currentTimeMillis()).isBetween(0L, 1000L);
+
+        double pinned = connections("pinned");
+        routes.clear();
+        MockHttpServletResponse read = request(cookie, () -> routes.add(database(true)));
+        assertThat(routes).containsExactly(PRIMARY);
+        assertThat(connections("pinned")).isEqualTo(pinned + 1);
+        assertThat(read.getCookie(ReadYourWritesFilter.COOKIE_NAME)).isNull();
+
+        // once the window has passed the same cookie no longer pins
+        Thread.sleep(1100);
+        routes.clear();
+        request(cookie, () -> routes.add(database(true)));
+        request(null, () -> routes.add(database(true)));
+        assertThat(routes).containsExactly(REPLICA, REPLICA);
+    }
+
+    /** Runs the work as one request through ReadYourWritesFilter. */
+    private MockHttpServletResponse request(Cookie cookie, Runnable work) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customer/dashboard");
+        if (cookie != null) request.setCookies(cookie);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        readYourWritesFilter.doFilter(request, response, (req, res) -> work.run());
+        return response;
+    }
+
+    private String database(boolean readOnly) {
+        TransactionTemplate tx = readOnly ? readOnly() : new TransactionTemplate(transactionManager);
+        return tx.execute(s -> jdbcTemplate.queryForObject("select database()", String.class));
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx;
+    }
+
+    private double connections(String route) {
+        return meterRegistry.get("billing.datasource.connections").tag("route", route).counter().count();
+    }
+}
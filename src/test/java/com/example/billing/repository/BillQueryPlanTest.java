@@ -0,0 +1,79 @@
+package com.example.billing.repository;
+
+import com.example.billing.dto.BillCursor;
+import com.example.billing.dto.BillFilter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the SQL Hibernate generates for BillRepository's keyset pages, optional
+ * filters included, and fails when it stops using the V2 index meant for it.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.billing.repository.SqlCapture")
+@ActiveProfiles("test")
+class BillQueryPlanTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2024, 1, 31);
+    private static final BillCursor CURSOR = new BillCursor(LocalDate.of(2025, 6, 30), 1000L);
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        List<Object[]> customers = new ArrayList<>();
+        List<Object[]> bills = new ArrayList<>();
+        for (long c = 1; c <= 200; c++) {
+            customers.add(new Object[] {c, "Customer " + c, "c" + c + "@example.com"});
+            for (int m = 0; m < 24; m++) {
+                bills.add(new Object[] {c, 100.0 + m, 450.0 + m, FIRST.plusMonths(m)});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into customers (id, name, email, address) values (?, ?, ?, 'Street')", customers);
+        jdbcTemplate.batchUpdate("insert into bills (customer_id, units_consumed, amount, bill_date) values (?, ?, ?, ?)", bills);
+    }
+
+    @Test
+    void customerPagesSeekCustomerDateIndex() {
+        assertUses("idx_bills_customer_date", new BillFilter(7L, null, null, null, null), null);
+        assertUses("idx_bills_customer_date", new BillFilter(7L, null, null, null, null), CURSOR);
+        assertUses("idx_bills_customer_date",
+                new BillFilter(7L, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 12, 31), 100.0, null), CURSOR);
+    }
+
+    @Test
+    void unfilteredPagesWalkDateIndex() {
+        assertUses("idx_bills_date", new BillFilter(null, null, null, null, null), null);
+        assertUses("idx_bills_date", new BillFilter(null, null, null, null, null), CURSOR);
+        assertUses("idx_bills_date",
+                new BillFilter(null, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 12, 31), null, 500.0), null);
+    }
+
+    private void assertUses(String index, BillFilter filter, BillCursor after) {
+        SqlCapture.start();
+        billRepository.findPageRows(filter, after, 51);
+        List<String> statements = SqlCapture.stop();
+        assertThat(statements).hasSize(1);
+        // H2 plans a prepared statement without its parameter values, like a generic plan
+        String plan = jdbcTemplate.query(con -> con.prepareStatement("explain " + statements.get(0)),
+                rs -> rs.next() ? rs.getString(1) : "");
+        assertThat(plan.toLowerCase(Locale.ROOT))
+                .as("plan for %s after %s:%n%s", filter, after, plan)
+                .contains(index);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.billing.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the calling thread between start() and stop(),
+ * so background jobs do not show up. Register it with
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> list = statements.get();
+        if (list != null) list.add(sql);
+        return sql;
+    }
+
+    public static void start() {
+        statements.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> list = statements.get();
+        statements.remove();
+        return list == null ? List.of() : list;
+    }
+}
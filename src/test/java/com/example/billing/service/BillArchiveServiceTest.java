@@ -0,0 +1,154 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.BillCursor;
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillView;
+import com.example.billing.dto.CursorPage;
+import com.example.billing.repository.BillExportRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listings across the watermark (2025-02-01). Customer 701 has ten archived bills in
+ * early January, two hot bills below the watermark that a pass has not moved yet, and
+ * ten hot bills in March. Every listing must match one table sorted newest first.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class BillArchiveServiceTest {
+
+    private static final LocalDate WATERMARK = LocalDate.of(2025, 2, 1);
+    private static final BillFilter CUSTOMER = new BillFilter(701L, null, null, null, null);
+
+    @Autowired
+    private BillArchiveService billArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BillExportRepository billExportRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate, @Autowired BillArchiveService billArchiveService) {
+        jdbcTemplate.update("insert into customers (id, name, email, address) values (701, 'Tiered', 't701@example.com', 'Street')");
+        for (int day = 1; day <= 10; day++) {
+            jdbcTemplate.update("insert into bills_archive (id, customer_id, units_consumed, amount, bill_date) " +
+                    "values (?, 701, 100, 450, ?)", day, Date.valueOf(LocalDate.of(2025, 1, day)));
+        }
+        insertHot(jdbcTemplate, 11, LocalDate.of(2025, 1, 15));
+        insertHot(jdbcTemplate, 12, LocalDate.of(2025, 1, 20));
+        for (int day = 1; day <= 10; day++) insertHot(jdbcTemplate, 12 + day, LocalDate.of(2025, 3, day));
+        jdbcTemplate.update("update bill_archive_state set archived_before = ? where id = 1", Date.valueOf(WATERMARK));
+        billArchiveService.refreshWatermark();
+    }
+
+    private static void insertHot(JdbcTemplate jdbcTemplate, long id, LocalDate date) {
+        jdbcTemplate.update("insert into bills (id, customer_id, units_consumed, amount, bill_date) " +
+                "values (?, 701, 100, 450, ?)", id, Date.valueOf(date));
+    }
+
+    @Test
+    void pageReachingBelowTheWatermarkMergesBothTiers() {
+        CursorPage<BillView> page = billArchiveService.findPage(CUSTOMER, null, 15);
+
+        assertThat(ids(page.items())).isEqualTo(expected(null, null).subList(0, 15));
+        // ten March bills, the two unmoved January bills, then the newest archived ones
+        assertThat(ids(page.items()).subList(10, 15)).containsExactly(12L, 11L, 10L, 9L, 8L);
+        assertThat(page.nextCursor()).isEqualTo(new BillCursor(LocalDate.of(2025, 1, 8), 8L).encode());
+    }
+
+    @Test
+    void cursorsWalkAcrossTheWatermarkWithoutGapsOrRepeats() {
+        List<Long> walked = new ArrayList<>();
+        BillCursor cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<BillView> page = billArchiveService.findPage(CUSTOMER, cursor, 4);
+            walked.addAll(ids(page.items()));
+            cursor = BillCursor.parse(page.nextCursor());
+            pages++;
+        } while (cursor != null);
+
+        assertThat(walked).isEqualTo(expected(null, null));
+        assertThat(pages).isEqualTo(6);
+    }
+
+    @Test
+    void rangeBelowTheWatermarkReadsTheArchiveAndUnmovedBills() {
+        BillFilter january = new BillFilter(701L, LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 31), null, null);
+        CursorPage<BillView> page = billArchiveService.findPage(january, null, 50);
+
+        assertThat(ids(page.items())).isEqualTo(expected(LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 31)))
+                .containsExactly(12L, 11L, 10L, 9L, 8L, 7L, 6L, 5L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void rangeAboveTheWatermarkIsServedFromTheHotTable() {
+        BillFilter march = new BillFilter(701L, LocalDate.of(2025, 3, 1), null, null, null);
+        CursorPage<BillView> page = billArchiveService.findPage(march, null, 50);
+
+        assertThat(ids(page.items())).isEqualTo(expected(LocalDate.of(2025, 3, 1), null)).hasSize(10);
+        assertThat(billArchiveService.archivedBefore()).isEqualTo(WATERMARK);
+    }
+
+    @Test
+    void exportReadsBothTablesFromOneSnapshot() {
+        // customer 702: one archived bill and two hot ones an archive pass is about to move
+        jdbcTemplate.update("insert into customers (id, name, email, address) values (702, 'Export', 't702@example.com', 'Street')");
+        jdbcTemplate.update("insert into bills_archive (id, customer_id, units_consumed, amount, bill_date) " +
+                "values (101, 702, 100, 450, date '2025-01-01')");
+        jdbcTemplate.update("insert into bills (id, customer_id, units_consumed, amount, bill_date) " +
+                "values (102, 702, 100, 450, date '2025-01-02'), (103, 702, 100, 450, date '2025-03-01')");
+
+        List<Long> exported = new ArrayList<>();
+        billExportRepository.forEach(702L, null, null, row -> {
+            if (exported.isEmpty()) {
+                // a pass moves bill 102 once the archive scan is under way
+                CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+                    jdbcTemplate.update("insert into bills_archive (id, customer_id, units_consumed, amount, bill_date) " +
+                            "select id, customer_id, units_consumed, amount, bill_date from bills where id = 102");
+                    jdbcTemplate.update("delete from bills where id = 102");
+                })).join();
+            }
+            exported.add(row.id);
+        });
+
+        assertThat(exported).containsExactly(101L, 102L, 103L);
+    }
+
+    /** The customer's bill ids in both tables, newest first, as a single table would list them. */
+    private List<Long> expected(LocalDate from, LocalDate to) {
+        LocalDate low = from == null ? LocalDate.of(1970, 1, 1) : from;
+        LocalDate high = to == null ? LocalDate.of(9999, 12, 31) : to;
+        return jdbcTemplate.queryForList(
+                "select id from (select id, bill_date from bills where customer_id = 701 " +
+                "union all select id, bill_date from bills_archive where customer_id = 701) b " +
+                "where bill_date between ? and ? order by bill_date desc, id desc",
+                Long.class, Date.valueOf(low), Date.valueOf(high));
+    }
+
+    private static List<Long> ids(List<BillView> bills) {
+        return bills.stream().map(BillView::id).toList();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.billing.service;
+
+import com.example.billing.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class BillImportServiceTest {
+
+    @Autowired
+    private BillImportService billImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockHttpSession admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new MockHttpSession();
+        admin.setAttribute(SessionHelper.SESSION_USER_ID, 1L);
+        admin.setAttribute(SessionHelper.SESSION_ROLE, Role.ADMIN.name());
+    }
+
+    @Test
+    void unexpectedErrorWhileParsingFailsTheJob() {
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() {
+                throw new IllegalStateException("decoder blew up");
+            }
+        };
+
+        assertThatThrownBy(() -> billImportService.importReadings(admin, "text/csv", broken))
+                .isInstanceOf(IllegalStateException.class);
+
+        List<Map<String, Object>> jobs = billImportService.listJobs(admin);
+        Map<String, Object> job = jobs.get(jobs.size() - 1);
+        assertThat(job).containsEntry("state", "FAILED");
+        assertThat((String) job.get("failure")).contains("decoder blew up");
+        assertThat(job.get("finishedAt")).isNotNull();
+    }
+
+    @Test
+    void headerLineNamingTheColumnsIsSkipped() {
+        addCustomer(801);
+        addCustomer(802);
+
+        assertThat(importCsv("customerId,unitsConsumed\n801,120\n802,80\n"))
+                .containsEntry("imported", 2L).containsEntry("rejected", 0L);
+        // as spreadsheets save it: byte order mark, quotes, other case
+        assertThat(importCsv("\uFEFF\"CustomerId\", \"UnitsConsumed\"\r\n801,130\r\n"))
+                .containsEntry("imported", 1L).containsEntry("rejected", 0L);
+    }
+
+    @Test
+    void malformedFirstLineIsReportedNotSkipped() {
+        addCustomer(811);
+
+        Map<String, Object> job = importCsv("81l,120\n811,90\n");
+        assertThat(job).containsEntry("imported", 1L).containsEntry("rejected", 1L);
+        assertThat(job.get("errors")).isEqualTo(List.of(
+                Map.of("line", 1L, "error", "customerId and unitsConsumed are required numeric fields.")));
+
+        // a header with other column names is not one
+        assertThat(importCsv("customer,units\n811,95\n"))
+                .containsEntry("imported", 1L).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void nonFiniteUnitsAreRejectedPerLine() {
+        addCustomer(831);
+        addCustomer(832);
+
+        Map<String, Object> csv = importCsv("831,NaN\n832,-Infinity\n831,Infinity\n832,140\n");
+        assertThat(csv).containsEntry("state", "COMPLETED").containsEntry("imported", 1L).containsEntry("rejected", 3L);
+        assertThat((List<?>) csv.get("errors")).extracting("line").containsExactly(1L, 2L, 3L);
+        assertThat((List<?>) csv.get("errors")).extracting("error").containsOnly("Units must be a finite number");
+
+        Map<String, Object> ndjson = billImportService.importReadings(admin, "application/x-ndjson", new ByteArrayInputStream(
+                "{\"customerId\":831,\"unitsConsumed\":\"NaN\"}\n{\"customerId\":831,\"unitsConsumed\":90}\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+        assertThat(ndjson).containsEntry("imported", 1L).containsEntry("rejected", 1L);
+        assertThat(ndjson.get("errors")).isEqualTo(List.of(Map.of("line", 1L, "error", "Units must be a finite number")));
+    }
+
+    @Test
+    void consumptionTooLargeToPriceIsRejectedPerLine() {
+        addCustomer(821);
+
+        Map<String, Object> job = billImportService.importReadings(admin, "application/x-ndjson", new ByteArrayInputStream(
+                "{\"customerId\":821,\"unitsConsumed\":1e300}\n{\"customerId\":821,\"unitsConsumed\":150}\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+        assertThat(job).containsEntry("imported", 1L).containsEntry("rejected", 1L);
+        assertThat(job.get("errors")).isEqualTo(List.of(Map.of("line", 1L, "error", "Units must be at most 1000000")));
+    }
+
+    private Map<String, Object> importCsv(String body) {
+        return billImportService.importReadings(admin, "text/csv",
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void addCustomer(long id) {
+        jdbcTemplate.update("insert into customers (id, name, email, address) values (?, ?, ?, 'Street')",
+                id, "Customer " + id, "c" + id + "@example.com");
+    }
+}
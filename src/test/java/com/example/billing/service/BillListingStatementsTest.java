@@ -0,0 +1,149 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.BillFilter;
+import com.example.billing.dto.BillView;
+import com.example.billing.dto.CursorPage;
+import com.example.billing.dto.CustomerVersion;
+import com.example.billing.model.Role;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks a 10k-bill listing page by page and counts the statements Hibernate prepares:
+ * each page is one projection (plus the archive tier on the last page), however many
+ * distinct customers it covers, and no Customer entity is ever loaded. The customer
+ * dashboard is counted at the JDBC level, so JdbcTemplate reads show up too.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class BillListingStatementsTest {
+
+    private static final int CUSTOMERS = 1000;
+    private static final int BILLS_PER_CUSTOMER = 10;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private MockHttpSession admin;
+
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        List<Object[]> customers = new ArrayList<>();
+        List<Object[]> bills = new ArrayList<>();
+        LocalDate first = LocalDate.of(2025, 1, 1);
+        for (long c = 1; c <= CUSTOMERS; c++) {
+            customers.add(new Object[] {c, "Customer " + c, "c" + c + "@example.com"});
+            for (int i = 0; i < BILLS_PER_CUSTOMER; i++) {
+                bills.add(new Object[] {c, 100.0, 450.0, first.plusDays((c * 7 + i * 31) % 365)});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into customers (id, name, email, address) values (?, ?, ?, 'Street')", customers);
+        jdbcTemplate.batchUpdate("insert into bills (customer_id, units_consumed, amount, bill_date) values (?, ?, ?, ?)", bills);
+        jdbcTemplate.update("insert into users (id, username, password, role) values (42, 'c42', 'x', 'CUSTOMER')");
+        jdbcTemplate.update("update customers set user_id = 42 where id = 42");
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        admin = new MockHttpSession();
+        admin.setAttribute(SessionHelper.SESSION_USER_ID, 1L);
+        admin.setAttribute(SessionHelper.SESSION_ROLE, Role.ADMIN.name());
+    }
+
+    @Test
+    void everyPageTakesTheSameStatementsWhateverItsCustomers() {
+        BillFilter all = new BillFilter(null, null, null, null, null);
+        Set<Long> ids = new HashSet<>();
+        Set<Long> customers = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorPage<BillView> page = adminService.getAllBills(admin, all, cursor, CursorPage.MAX_LIMIT);
+            long statements = statistics.getPrepareStatementCount();
+            page.items().forEach(b -> {
+                ids.add(b.id());
+                customers.add(b.customerId());
+            });
+            cursor = page.nextCursor();
+            pages++;
+            // the archive tier is only read once the hot page runs short
+            assertThat(statements).as("statements for page %d", pages).isEqualTo(cursor == null ? 2 : 1);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+        } while (cursor != null);
+
+        assertThat(ids).hasSize(CUSTOMERS * BILLS_PER_CUSTOMER);
+        assertThat(customers).hasSize(CUSTOMERS);
+        assertThat(pages).isEqualTo(CUSTOMERS * BILLS_PER_CUSTOMER / CursorPage.MAX_LIMIT);
+    }
+
+    @Test
+    void customerPageReadsEachTierOnce() {
+        statistics.clear();
+        CursorPage<BillView> page = adminService.getAllBills(admin,
+                new BillFilter(42L, null, null, null, null), null, CursorPage.MAX_LIMIT);
+
+        assertThat(page.items()).hasSize(BILLS_PER_CUSTOMER)
+                .allSatisfy(b -> assertThat(b.customerName()).isEqualTo("Customer 42"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void customerDashboardReadsTheSummaryRowAndOneBillsPage() {
+        MockHttpSession customer = new MockHttpSession();
+        customer.setAttribute(SessionHelper.SESSION_USER_ID, 42L);
+        customer.setAttribute(SessionHelper.SESSION_ROLE, Role.CUSTOMER.name());
+        customerService.getProfile(customer);
+
+        // what GET /api/customer/dashboard runs: the validators, then the body
+        long before = jdbcStatements();
+        CustomerVersion version = customerService.getVersion(customer);
+        Map<String, Object> dashboard = customerService.getDashboard(customer, version, 5);
+
+        assertThat(jdbcStatements() - before).isEqualTo(2);
+        assertThat(dashboard.get("stats")).isSameAs(version.stats());
+        assertThat((CursorPage<?>) dashboard.get("bills")).satisfies(page -> {
+            assertThat(page.items()).hasSize(5);
+            assertThat(page.nextCursor()).isNotNull();
+        });
+    }
+
+    /** Statements executed through the application DataSource so far (SqlMetrics). */
+    private long jdbcStatements() {
+        return meterRegistry.find("billing.sql.execution").timers().stream().mapToLong(Timer::count).sum();
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.BillRequest;
+import com.example.billing.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class BillingRunServiceTest {
+
+    @Autowired
+    private BillingRunService billingRunService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private MockHttpSession admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new MockHttpSession();
+        admin.setAttribute(SessionHelper.SESSION_USER_ID, 1L);
+        admin.setAttribute(SessionHelper.SESSION_ROLE, Role.ADMIN.name());
+    }
+
+    @Test
+    void partitionsFinishWhileTheGlobalSummaryIsLocked() throws Exception {
+        addCustomersWithReadings(1, 2500, "2026-01");
+        long billsBefore = dashboardBills();
+        long monthBefore = monthBills();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+                    jdbcTemplate.queryForList("select id from dashboard_summary for update");
+                    locked.countDown();
+                    await(release);
+                }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Long runId = ((Number) billingRunService.startRun(admin, "2026-01").get("id")).longValue();
+        try {
+            waitFor(() -> run(runId).get("completedPartitions").equals(run(runId).get("totalPartitions")));
+            // every partition committed past the lock; only the merge is left waiting for it
+            assertThat(run(runId)).containsEntry("status", "RUNNING");
+            assertThat(dashboardBills()).isEqualTo(billsBefore);
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+
+        waitFor(() -> "COMPLETED".equals(run(runId).get("status")));
+        assertThat(run(runId)).containsEntry("billsCreated", 2500L);
+        assertThat(dashboardBills()).isEqualTo(billsBefore + 2500);
+        assertThat(monthBills()).isEqualTo(monthBefore + 2500);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from billing_run_partitions where run_id = ? and merged = false", Integer.class, runId))
+                .isZero();
+    }
+
+    @Test
+    void resumedRunCoversCustomersAddedSince() {
+        addCustomersWithReadings(5001, 5010, "2026-02");
+        // a run interrupted before its partition [5001, 5011) committed
+        jdbcTemplate.update("insert into billing_runs (id, period, status, started_at, total_partitions, " +
+                "completed_partitions, bills_created) values (900, '2026-02', 'RUNNING', current_timestamp, 1, 0, 0)");
+        jdbcTemplate.update("insert into billing_run_partitions (run_id, low_id, high_id, done, bills_created) " +
+                "values (900, 5001, 5011, false, 0)");
+        addCustomersWithReadings(5011, 5015, "2026-02");
+
+        billingRunService.startRun(admin, "2026-02");
+
+        waitFor(() -> "COMPLETED".equals(run(900L).get("status")));
+        assertThat(run(900L)).containsEntry("totalPartitions", 2).containsEntry("billsCreated", 15L);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from bills where billing_period = '2026-02' and customer_id > 5010", Integer.class))
+                .isEqualTo(5);
+    }
+
+    @Test
+    void partitionsRunPastAnInFlightBillAndQueueOnItsCustomer() throws Exception {
+        addCustomersWithReadings(3001, 3005, "2026-03");
+        addCustomersWithReadings(4001, 4005, "2026-03");
+        insertStats(3001, 6);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+                    adminService.generateBill(admin, 3001L, 100.0);
+                    locked.countDown();
+                    await(release);
+                }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Long runId = ((Number) billingRunService.startRun(admin, "2026-03").get("id")).longValue();
+        try {
+            // only the partition holding customer 3001 waits for the bill in flight
+            waitFor(() -> run(runId).get("completedPartitions").equals((Integer) run(runId).get("totalPartitions") - 1));
+            assertThat(jdbcTemplate.queryForObject(
+                    "select count(*) from bills where billing_period = '2026-03' and customer_id > 4000", Integer.class))
+                    .isEqualTo(5);
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+
+        waitFor(() -> "COMPLETED".equals(run(runId).get("status")));
+        assertThat(run(runId)).containsEntry("billsCreated", 10L).containsEntry("lastFailure", null);
+        assertThat(statsBillCount(3001)).isEqualTo(8);
+    }
+
+    @Test
+    void partitionAppliesItsBillsOnTopOfAStatisticsRebuild() throws Exception {
+        addCustomersWithReadings(4501, 4501, "2026-04");
+        insertStats(4501, 6);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // what the backfill does to the customer's rows: delete, then write the rebuilt ones
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+                    jdbcTemplate.update("delete from consumption_stats where customer_id = 4501");
+                    insertStats(4501, 7);
+                    locked.countDown();
+                    await(release);
+                }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Long runId = ((Number) billingRunService.startRun(admin, "2026-04").get("id")).longValue();
+        try {
+            waitFor(() -> run(runId).get("completedPartitions").equals((Integer) run(runId).get("totalPartitions") - 1));
+        } finally {
+            release.countDown();
+            rebuild.get(5, TimeUnit.SECONDS);
+        }
+
+        waitFor(() -> "COMPLETED".equals(run(runId).get("status")));
+        assertThat(statsBillCount(4501)).isEqualTo(8);
+    }
+
+    @Test
+    void concurrentStartsForAPeriodGetTheSameRun() throws Exception {
+        addCustomersWithReadings(2601, 2603, "2026-05");
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(s -> {
+                    Long id = runId(billingRunService.startRun(admin, "2026-05"));
+                    started.countDown();
+                    await(release);
+                    return id;
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> runId(billingRunService.startRun(admin, "2026-05")));
+        try {
+            Thread.sleep(300);
+            // waits on the period's lock instead of finding no RUNNING run
+            assertThat(second).isNotDone();
+        } finally {
+            release.countDown();
+        }
+
+        Long runId = first.get(5, TimeUnit.SECONDS);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(runId);
+        waitFor(() -> "COMPLETED".equals(run(runId).get("status")));
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from billing_runs where period = '2026-05'", Integer.class)).isEqualTo(1);
+        assertThat(run(runId)).containsEntry("billsCreated", 3L);
+    }
+
+    @Test
+    void finishedPartitionsReachTheDashboardWhileTheRunIsInProgress() throws Exception {
+        addCustomersWithReadings(2701, 2703, "2026-06");
+        addCustomersWithReadings(3601, 3601, "2026-06");
+        insertStats(3601, 6);
+        long billsBefore = dashboardBills();
+        long monthBefore = monthBills();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+                    jdbcTemplate.queryForList("select * from consumption_stats where customer_id = 3601 for update");
+                    locked.countDown();
+                    await(release);
+                }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Long runId = runId(billingRunService.startRun(admin, "2026-06"));
+        try {
+            // the partition of customers 2701-2703 is merged while 3601's waits
+            waitFor(() -> dashboardBills() == billsBefore + 3);
+            assertThat(monthBills()).isEqualTo(monthBefore + 3);
+            Map<String, Object> run = run(runId);
+            assertThat(run).containsEntry("status", "RUNNING")
+                    .containsEntry("completedPartitions", (Integer) run.get("totalPartitions") - 1);
+            assertThat(run.get("etaSeconds")).isNotNull();
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+
+        waitFor(() -> "COMPLETED".equals(run(runId).get("status")));
+        assertThat(dashboardBills()).isEqualTo(billsBefore + 4);
+        assertThat(monthBills()).isEqualTo(monthBefore + 4);
+    }
+
+    @Test
+    void twoNodesLaunchingOneRunShareItsPartitions() {
+        addCustomersWithReadings(6001, 6200, "2026-07");
+        long billsBefore = dashboardBills();
+        // a run interrupted before any of its 20 partitions committed
+        jdbcTemplate.update("insert into billing_runs (id, period, status, started_at, total_partitions, " +
+                "completed_partitions, bills_created) values (910, '2026-07', 'RUNNING', current_timestamp, 20, 0, 0)");
+        List<Object[]> partitions = new ArrayList<>();
+        for (long low = 6001; low <= 6200; low += 10) partitions.add(new Object[] {low, low + 10});
+        jdbcTemplate.batchUpdate("insert into billing_run_partitions (run_id, low_id, high_id, done, bills_created) " +
+                "values (910, ?, ?, false, 0)", partitions);
+        // keeps the run from growing by the customers of other tests, which are billed already
+        jdbcTemplate.update("insert into billing_run_partitions (run_id, low_id, high_id, done, merged, bills_created) " +
+                "values (910, 6201, 1000000, true, true, 0)");
+
+        // a second node, with its own workers and its own record of the runs it executes
+        BillingRunService otherNode = beanFactory.createBean(BillingRunService.class);
+        try {
+            // both resume the run, as at the startup of a rolling redeploy
+            billingRunService.resumeInterrupted();
+            otherNode.resumeInterrupted();
+
+            waitFor(() -> "COMPLETED".equals(run(910L).get("status")));
+            assertThat(run(910L)).containsEntry("completedPartitions", 20)
+                    .containsEntry("billsCreated", 200L).containsEntry("lastFailure", null);
+            assertThat(otherNode.getRun(admin, 910L)).containsEntry("lastFailure", null);
+            assertThat(jdbcTemplate.queryForObject(
+                    "select count(*) from bills where billing_period = '2026-07'", Integer.class)).isEqualTo(200);
+            waitFor(() -> dashboardBills() == billsBefore + 200);
+            assertThat(jdbcTemplate.queryForObject(
+                    "select sum(bills_created) from billing_run_partitions where run_id = 910", Long.class)).isEqualTo(200);
+        } finally {
+            beanFactory.destroyBean(otherNode);
+        }
+    }
+
+    @Test
+    void readingsThatCannotBePricedAreRejected() {
+        addCustomersWithReadings(6301, 6302, "2026-08");
+
+        Map<String, Object> res = billingRunService.submitReadings(admin, "2026-09", List.of(
+                new BillRequest(6301L, Double.NaN), new BillRequest(6301L, Double.POSITIVE_INFINITY),
+                new BillRequest(6301L, 1e300), new BillRequest(6301L, 0.5), new BillRequest(6302L, 120.0)));
+
+        assertThat(res).containsEntry("accepted", 1).containsEntry("rejected", 4);
+        assertThat((List<?>) res.get("errors")).extracting("error").containsExactly(
+                "Units must be a finite number", "Units must be a finite number",
+                "Units must be at most 1000000", "Units must be at least 1");
+    }
+
+    /** An all-months statistics row as if the customer had been billed 100 units that many times. */
+    private void insertStats(long customerId, int bills) {
+        jdbcTemplate.update("insert into consumption_stats (customer_id, month_of_year, bill_count, mean_units, " +
+                "m2_units, last_units, last_bill_date) values (?, 0, ?, 100, 0, 100, date '2026-01-31')",
+                customerId, bills);
+    }
+
+    private long statsBillCount(long customerId) {
+        return jdbcTemplate.queryForObject(
+                "select bill_count from consumption_stats where customer_id = ? and month_of_year = 0",
+                Long.class, customerId);
+    }
+
+    private void addCustomersWithReadings(long first, long last, String period) {
+        List<Object[]> customers = new ArrayList<>();
+        List<Object[]> readings = new ArrayList<>();
+        for (long id = first; id <= last; id++) {
+            customers.add(new Object[] {id, "Customer " + id, "c" + id + "@example.com"});
+            readings.add(new Object[] {id, period});
+        }
+        jdbcTemplate.batchUpdate("insert into customers (id, name, email, address) values (?, ?, ?, 'Street')", customers);
+        jdbcTemplate.batchUpdate("insert into meter_readings (customer_id, period, units_consumed) values (?, ?, 100)", readings);
+    }
+
+    private long dashboardBills() {
+        return jdbcTemplate.queryForObject("select bill_count from dashboard_summary", Long.class);
+    }
+
+    private long monthBills() {
+        return jdbcTemplate.queryForObject("select coalesce(sum(bill_count), 0) from monthly_usage where period = ?",
+                Long.class, YearMonth.now().toString());
+    }
+
+    private static Long runId(Map<String, Object> run) {
+        return ((Number) run.get("id")).longValue();
+    }
+
+    private Map<String, Object> run(Long id) {
+        return billingRunService.getRun(admin, id);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.billing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pricing with the original tariff (up to 100 units at 3.50, up to 300 at 5.00, 7.00
+ * above) and effective-date selection in TariffSchedule. No Spring context needed.
+ */
+class CompiledTariffTest {
+
+    private static final CompiledTariff ORIGINAL = new CompiledTariff(1,
+            new long[] { 100_00, 300_00, Long.MAX_VALUE }, new long[] { 350, 500, 700 });
+
+    @Test
+    void slabBoundsAreInclusive() {
+        assertThat(ORIGINAL.amount(0)).isEqualTo(0.0);
+        assertThat(ORIGINAL.amount(1)).isEqualTo(3.5);
+        assertThat(ORIGINAL.amount(100)).isEqualTo(350.0);
+        assertThat(ORIGINAL.amount(101)).isEqualTo(355.0);
+        assertThat(ORIGINAL.amount(300)).isEqualTo(1350.0);
+        assertThat(ORIGINAL.amount(301)).isEqualTo(1357.0);
+        assertThat(ORIGINAL.amount(1000)).isEqualTo(6250.0);
+    }
+
+    @Test
+    void fractionalUnitsAreChargedAtTheirSlabRate() {
+        assertThat(ORIGINAL.amount(99.99)).isEqualTo(349.97);
+        assertThat(ORIGINAL.amount(100.01)).isEqualTo(350.05);
+        assertThat(ORIGINAL.amount(299.99)).isEqualTo(1349.95);
+        assertThat(ORIGINAL.amount(300.01)).isEqualTo(1350.07);
+        assertThat(ORIGINAL.amount(150.5)).isEqualTo(602.5);
+    }
+
+    @Test
+    void halfPaiseRoundUp() {
+        // 0.01 units at 350 paise is 3.5 paise
+        assertThat(ORIGINAL.amountPaise(1)).isEqualTo(4);
+        assertThat(ORIGINAL.amountPaise(3)).isEqualTo(11);
+        assertThat(ORIGINAL.amountPaise(2)).isEqualTo(7);
+
+        CompiledTariff odd = new CompiledTariff(2, new long[] { Long.MAX_VALUE }, new long[] { 333 });
+        assertThat(odd.amountPaise(1)).isEqualTo(3);     // 3.33
+        assertThat(odd.amountPaise(15)).isEqualTo(50);   // 49.95
+        assertThat(odd.amountPaise(16)).isEqualTo(53);   // 53.28
+    }
+
+    @Test
+    void unitsAreRoundedToTheHundredth() {
+        assertThat(CompiledTariff.toCentiUnits(100.004)).isEqualTo(100_00);
+        assertThat(CompiledTariff.toCentiUnits(100.006)).isEqualTo(100_01);
+        assertThat(CompiledTariff.toCentiUnits(0.1 + 0.2)).isEqualTo(30);
+    }
+
+    @Test
+    void unitsOutsideTheBillableRangeAreRejected() {
+        assertThat(CompiledTariff.unitsError(1)).isNull();
+        assertThat(CompiledTariff.unitsError(CompiledTariff.MAX_UNITS)).isNull();
+        assertThat(CompiledTariff.unitsError(0.99)).isEqualTo("Units must be at least 1");
+        assertThat(CompiledTariff.unitsError(CompiledTariff.MAX_UNITS + 0.01)).isEqualTo("Units must be at most 1000000");
+        assertThat(CompiledTariff.unitsError(1e300)).isEqualTo("Units must be at most 1000000");
+        assertThat(CompiledTariff.unitsError(Double.NaN)).isEqualTo("Units must be a finite number");
+        assertThat(CompiledTariff.unitsError(Double.POSITIVE_INFINITY)).isEqualTo("Units must be a finite number");
+    }
+
+    @Test
+    void largestConsumptionAtTheHighestRateDoesNotOverflow() {
+        CompiledTariff steep = new CompiledTariff(3,
+                new long[] { 500_000_00, Long.MAX_VALUE }, new long[] { CompiledTariff.MAX_RATE_PAISE, CompiledTariff.MAX_RATE_PAISE });
+
+        assertThat(steep.amount(CompiledTariff.MAX_UNITS)).isEqualTo(CompiledTariff.MAX_UNITS * CompiledTariff.MAX_RATE_PAISE / 100);
+    }
+
+    @Test
+    void wholeUnitsPriceAsTheOriginalFormulaDid() {
+        for (int units = 0; units <= 1000; units++) {
+            assertThat(ORIGINAL.amount(units)).as("%d units", units).isEqualTo(originalFormula(units));
+        }
+    }
+
+    @Test
+    void scheduleSelectsTheVersionInForceOnTheDate() {
+        CompiledTariff first = version(1), second = version(2), third = version(3);
+        TariffSchedule schedule = new TariffSchedule(
+                new long[] { day(2024, 1, 1), day(2025, 4, 1), day(2025, 4, 1) },
+                new CompiledTariff[] { first, second, third });
+
+        assertThat(schedule.forDate(LocalDate.of(2024, 1, 1))).isSameAs(first);
+        assertThat(schedule.forDate(LocalDate.of(2025, 3, 31))).isSameAs(first);
+        // two versions effective on the same day: the later one wins
+        assertThat(schedule.forDate(LocalDate.of(2025, 4, 1))).isSameAs(third);
+        assertThat(schedule.forDate(LocalDate.of(2030, 1, 1))).isSameAs(third);
+        assertThatThrownBy(() -> schedule.forDate(LocalDate.of(2023, 12, 31)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> TariffSchedule.EMPTY.forDate(LocalDate.of(2025, 1, 1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /** AdminService.calculateAmount before tariffs were versioned. */
+    private static double originalFormula(double units) {
+        double amount;
+        if (units <= 100) {
+            amount = units * 3.50;
+        } else if (units <= 300) {
+            amount = (100 * 3.50) + ((units - 100) * 5.00);
+        } else {
+            amount = (100 * 3.50) + (200 * 5.00) + ((units - 300) * 7.00);
+        }
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    private static CompiledTariff version(long version) {
+        return new CompiledTariff(version, new long[] { Long.MAX_VALUE }, new long[] { 100 * version });
+    }
+
+    private static long day(int year, int month, int day) {
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.billing.service;
+
+import com.example.billing.model.Role;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Anomaly flags with the default settings (threshold 3.0, min-history 6, deviation floor
+ * 10% of the expected units), and the backfill reproducing the incremental results.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class ConsumptionStatsServiceTest {
+
+    @Autowired
+    private ConsumptionStatsService consumptionStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final AtomicLong billIds = new AtomicLong(10_000);
+    private MockHttpSession admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new MockHttpSession();
+        admin.setAttribute(SessionHelper.SESSION_USER_ID, 1L);
+        admin.setAttribute(SessionHelper.SESSION_ROLE, Role.ADMIN.name());
+        // the startup backfill runs on an empty database; let it finish first
+        waitForBackfill(null);
+    }
+
+    @Test
+    void billsAreOnlyCheckedOnceTheCustomerHasEnoughHistory() {
+        addCustomer(601);
+        for (int month = 1; month <= 5; month++) assertThat(bill(601, date(2025, month), 100)).isZero();
+
+        // five bills: even a tenfold jump is not flagged yet
+        assertThat(bill(601, date(2025, 6), 1000)).isZero();
+        // the jump is now part of the history; another one on top of six bills is flagged
+        assertThat(bill(601, date(2025, 7), 5000)).isEqualTo(1);
+    }
+
+    @Test
+    void billsBeyondTheThresholdAreFlagged() {
+        addCustomer(602);
+        // mean 100, sample standard deviation 10.95
+        for (int month = 1; month <= 6; month++) bill(602, date(2025, month), month % 2 == 0 ? 110 : 90);
+
+        assertThat(bill(602, date(2025, 7), 125)).isZero();
+
+        addCustomer(603);
+        for (int month = 1; month <= 6; month++) bill(603, date(2025, month), month % 2 == 0 ? 110 : 90);
+        assertThat(bill(603, date(2025, 7), 140)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForMap(
+                "select expected_units, score from bill_anomalies where customer_id = 603"))
+                .containsEntry("EXPECTED_UNITS", 100.0)
+                .hasEntrySatisfying("SCORE", score -> assertThat((Double) score).isBetween(3.6, 3.7));
+    }
+
+    @Test
+    void steadyCustomersAreJudgedAgainstTheDeviationFloor() {
+        addCustomer(604);
+        for (int month = 1; month <= 6; month++) bill(604, date(2025, month), 100);
+
+        // no spread at all: the floor (10 units) keeps a 25% rise from being flagged
+        assertThat(bill(604, date(2025, 7), 125)).isZero();
+    }
+
+    @Test
+    void aMonthWithHistoryIsComparedWithItsOwnMean() {
+        addCustomer(605);
+        addCustomer(606);
+        // two years at 100 units, except July at 300
+        for (int year = 2023; year <= 2024; year++) {
+            for (int month = 1; month <= 12; month++) {
+                bill(605, date(year, month), month == 7 ? 300 : 100);
+                bill(606, date(year, month), month == 7 ? 300 : 100);
+            }
+        }
+
+        assertThat(bill(605, date(2025, 7), 300)).isZero();
+        // a normal month's usage in July is the outlier
+        assertThat(bill(606, date(2025, 7), 100)).isEqualTo(1);
+        assertThat(stats(605, 7)).containsEntry("BILL_COUNT", 3L).containsEntry("MEAN_UNITS", 300.0);
+    }
+
+    @Test
+    void backfillMatchesTheIncrementalResults() {
+        for (long customer = 611; customer <= 615; customer++) {
+            addCustomer(customer);
+            for (int i = 0; i < 20; i++) {
+                double units = 80 + (customer * 37 + i * 53) % 60;
+                if (i == 12 || (customer == 613 && i == 17)) units *= 4;
+                LocalDate date = LocalDate.of(2024, 1, 15).plusMonths(i);
+                long billId = billIds.incrementAndGet();
+                jdbcTemplate.update("insert into bills (id, customer_id, units_consumed, amount, bill_date) " +
+                        "values (?, ?, ?, ?, ?)", billId, customer, units, units * 5, Date.valueOf(date));
+                record(billId, customer, date, units);
+            }
+        }
+        List<Map<String, Object>> stats = allStats();
+        List<Map<String, Object>> anomalies = allAnomalies();
+        assertThat(anomalies).hasSizeGreaterThanOrEqualTo(5);
+
+        Object previous = consumptionStatsService.getBackfillStatus(admin).get("lastRun");
+        consumptionStatsService.startBackfill(admin);
+        waitForBackfill(previous);
+
+        assertThat(consumptionStatsService.getBackfillStatus(admin).get("lastRun"))
+                .asInstanceOf(InstanceOfAssertFactories.MAP)
+                .containsEntry("bills", 100L).containsEntry("error", null);
+        assertThat(allStats()).isEqualTo(stats);
+        assertThat(allAnomalies()).isEqualTo(anomalies);
+    }
+
+    /** Records one bill (not stored in bills) and returns the number of flags it raised. */
+    private int bill(long customerId, LocalDate date, double units) {
+        return record(billIds.incrementAndGet(), customerId, date, units);
+    }
+
+    private int record(long billId, long customerId, LocalDate date, double units) {
+        return new TransactionTemplate(transactionManager).execute(s -> consumptionStatsService.recordBills(
+                new long[] { billId }, new long[] { customerId }, new double[] { units }, date, 1));
+    }
+
+    private void addCustomer(long id) {
+        jdbcTemplate.update("insert into customers (id, name, email, address) values (?, ?, ?, 'Street')",
+                id, "Customer " + id, "c" + id + "@example.com");
+    }
+
+    private Map<String, Object> stats(long customerId, int monthOfYear) {
+        return jdbcTemplate.queryForMap("select bill_count, mean_units from consumption_stats " +
+                "where customer_id = ? and month_of_year = ?", customerId, monthOfYear);
+    }
+
+    private List<Map<String, Object>> allStats() {
+        return jdbcTemplate.queryForList("select * from consumption_stats where customer_id between 611 and 615 " +
+                "order by customer_id, month_of_year");
+    }
+
+    private List<Map<String, Object>> allAnomalies() {
+        return jdbcTemplate.queryForList("select * from bill_anomalies where customer_id between 611 and 615 " +
+                "order by bill_id");
+    }
+
+    private static LocalDate date(int year, int month) {
+        return LocalDate.of(year, month, 28);
+    }
+
+    /** Waits until no backfill runs and the last run is no longer the given one. */
+    private void waitForBackfill(Object previousRun) {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (true) {
+            Map<String, Object> status = consumptionStatsService.getBackfillStatus(admin);
+            if (!(Boolean) status.get("running") && status.get("lastRun") != previousRun) return;
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.billing.service;
+
+import com.example.billing.dto.CustomerProfile;
+import com.example.billing.exception.ResourceNotFoundException;
+import com.example.billing.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class CustomerProfileCacheTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private CustomerProfileCache customerProfileCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void profileUpdateEvictsTheCachedProfile() {
+        MockHttpSession session = seedCustomer(601);
+        assertThat(customerService.getProfile(session).name()).isEqualTo("Customer 601");
+        long misses = missCount();
+        assertThat(customerService.getProfile(session).name()).isEqualTo("Customer 601");
+        assertThat(missCount()).isEqualTo(misses);
+
+        customerService.updateProfile(session, "Renamed", null, "New Street");
+
+        CustomerProfile profile = customerService.getProfile(session);
+        assertThat(profile.name()).isEqualTo("Renamed");
+        assertThat(profile.address()).isEqualTo("New Street");
+        assertThat(missCount()).isEqualTo(misses + 1);
+    }
+
+    @Test
+    void deletionEvictsTheCachedProfile() {
+        MockHttpSession session = seedCustomer(602);
+        assertThat(customerService.getProfile(session).id()).isEqualTo(602L);
+
+        adminService.deleteCustomer(adminSession(), 602L);
+
+        assertThatThrownBy(() -> customerService.getProfile(session))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private MockHttpSession seedCustomer(long id) {
+        jdbcTemplate.update("insert into users (id, username, password, role) values (?, ?, 'x', 'CUSTOMER')",
+                id, "cache-" + id);
+        jdbcTemplate.update("insert into customers (id, name, email, address, user_id) values (?, ?, ?, 'Street', ?)",
+                id, "Customer " + id, "cache" + id + "@example.com", id);
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(SessionHelper.SESSION_USER_ID, id);
+        session.setAttribute(SessionHelper.SESSION_ROLE, Role.CUSTOMER.name());
+        return session;
+    }
+
+    private static MockHttpSession adminSession() {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(SessionHelper.SESSION_USER_ID, 1L);
+        session.setAttribute(SessionHelper.SESSION_ROLE, Role.ADMIN.name());
+        return session;
+    }
+
+    private long missCount() {
+        return ((Number) customerProfileCache.stats().get("misses")).longValue();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.billing.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Signing, expiry and refresh of session tokens, with a 30 minute ttl and a one hour
+ * max-lifetime. Each instant gets its own SessionTokens on a fixed clock; they share the
+ * secret, so they accept each other's tokens as nodes do. No Spring context needed.
+ */
+class SessionTokensTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret";
+    private static final Instant LOGIN = Instant.parse("2026-01-01T09:00:00Z");
+
+    @Test
+    void issuedTokenCarriesItsClaims() {
+        SessionTokens.Claims claims = at(0).verify(at(0).issue(42L, "meter|reader", "ADMIN"));
+
+        assertThat(claims).isEqualTo(new SessionTokens.Claims(42L, "meter|reader", "ADMIN",
+                LOGIN, LOGIN.plus(Duration.ofMinutes(30))));
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        String token = at(0).issue(42L, "customer", "CUSTOMER");
+        int dot = token.indexOf('.');
+        String payload = token.substring(0, dot);
+        String signature = token.substring(dot + 1);
+
+        char last = signature.charAt(signature.length() - 1);
+        assertThat(at(0).verify(payload + "." + signature.substring(0, signature.length() - 1) + (last == 'A' ? 'B' : 'A')))
+                .isNull();
+        // same signature over a payload that claims another role
+        String decoded = new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8);
+        String promoted = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                decoded.replace("CUSTOMER", "ADMIN").getBytes(StandardCharsets.UTF_8));
+        assertThat(at(0).verify(promoted + "." + signature)).isNull();
+        // signed with another secret
+        SessionTokens other = new SessionTokens(SECRET.replace('t', 'x'), Duration.ofMinutes(30), Duration.ofHours(1),
+                Clock.fixed(LOGIN, ZoneOffset.UTC));
+        assertThat(at(0).verify(other.issue(42L, "customer", "CUSTOMER"))).isNull();
+
+        assertThat(at(0).verify(null)).isNull();
+        assertThat(at(0).verify("")).isNull();
+        assertThat(at(0).verify(payload)).isNull();
+        assertThat(at(0).verify("not base64!." + signature)).isNull();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = at(0).issue(42L, "customer", "CUSTOMER");
+
+        assertThat(at(29).verify(token)).isNotNull();
+        assertThat(at(30).verify(token)).isNull();
+    }
+
+    @Test
+    void refreshKeepsTheLoginTimeAndStopsAtMaxLifetime() {
+        String login = at(0).issue(42L, "customer", "CUSTOMER");
+
+        // more than half the ttl left
+        assertThat(at(10).refresh(at(10).verify(login))).isNull();
+
+        SessionTokens.Claims first = at(20).verify(at(20).refresh(at(20).verify(login)));
+        assertThat(first.issuedAt()).isEqualTo(LOGIN);
+        assertThat(first.expiresAt()).isEqualTo(LOGIN.plus(Duration.ofMinutes(50)));
+
+        // cut short at an hour after the login
+        SessionTokens.Claims second = at(40).verify(at(40).refresh(first));
+        assertThat(second.issuedAt()).isEqualTo(LOGIN);
+        assertThat(second.expiresAt()).isEqualTo(LOGIN.plus(Duration.ofHours(1)));
+
+        assertThat(at(55).refresh(at(55).verify(at(40).refresh(first)))).isNull();
+        assertThat(at(60).verify(at(40).refresh(first))).isNull();
+    }
+
+    @Test
+    void maxLifetimeShorterThanTheTtlLimitsTheFirstToken() {
+        SessionTokens tokens = new SessionTokens(SECRET, Duration.ofMinutes(30), Duration.ofMinutes(10),
+                Clock.fixed(LOGIN, ZoneOffset.UTC));
+
+        assertThat(tokens.verify(tokens.issue(42L, "customer", "CUSTOMER")).expiresAt())
+                .isEqualTo(LOGIN.plus(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void concurrentChecksOnShortLivedThreadsShareThePool() throws Exception {
+        SessionTokens tokens = at(0);
+        String token = tokens.issue(42L, "customer", "CUSTOMER");
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> checks = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                // a new thread per check, as with one virtual thread per request
+                checks.add(pool.submit(() -> {
+                    FutureTask<Boolean> check = new FutureTask<>(() -> tokens.verify(token) != null
+                            && tokens.verify(token + "x") == null);
+                    new Thread(check).start();
+                    return check.get();
+                }));
+            }
+            for (Future<Boolean> check : checks) assertThat(check.get()).isTrue();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void shortSecretIsRefused() {
+        assertThatThrownBy(() -> new SessionTokens("too-short", Duration.ofMinutes(30), Duration.ofHours(1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /** The tokens of a node whose clock reads the given minutes after the login. */
+    private static SessionTokens at(long minutes) {
+        return new SessionTokens(SECRET, Duration.ofMinutes(30), Duration.ofHours(1),
+                Clock.fixed(LOGIN.plus(Duration.ofMinutes(minutes)), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.billing.service;
+
+import com.example.billing.model.CustomerSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class StatsServiceTest {
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void recordBillsAddsToExistingRowsAndCreatesMissingOnes() {
+        jdbcTemplate.update("insert into customers (id, name, email, address) values (501, 'A', 'a501@example.com', 'Street')");
+        jdbcTemplate.update("insert into customers (id, name, email, address) values (502, 'B', 'b502@example.com', 'Street')");
+        jdbcTemplate.update("insert into customer_summaries (customer_id, bill_count, total_units, total_amount, " +
+                "data_version, last_modified_millis) values (501, 2, 200, 900, 3, 0)");
+
+        CustomerSummary existing = new CustomerSummary(501L);
+        existing.add(1, 50, 225);
+        CustomerSummary missing = new CustomerSummary(502L);
+        missing.add(1, 80, 360);
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                s -> statsService.recordBills(LocalDate.of(2026, 3, 31), List.of(existing, missing)));
+
+        Map<String, Object> a = summary(501);
+        assertThat(a).containsEntry("BILL_COUNT", 3L).containsEntry("TOTAL_AMOUNT", 1125.0).containsEntry("DATA_VERSION", 4L);
+        Map<String, Object> b = summary(502);
+        assertThat(b).containsEntry("BILL_COUNT", 1L).containsEntry("TOTAL_UNITS", 80.0).containsEntry("DATA_VERSION", 1L);
+    }
+
+    private Map<String, Object> summary(long customerId) {
+        return jdbcTemplate.queryForMap(
+                "select bill_count, total_units, total_amount, data_version from customer_summaries where customer_id = ?",
+                customerId);
+    }
+}
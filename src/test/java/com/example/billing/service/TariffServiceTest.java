@@ -0,0 +1,118 @@
+package com.example.billing.service;
+
+import com.example.billing.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The seeded tariff, and publishing: a new version is picked by effective date and only
+ * becomes visible, all at once, when its transaction commits. Each test publishes for its
+ * own date far in the future, so they do not see each other's versions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class TariffServiceTest {
+
+    @Autowired
+    private TariffService tariffService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockHttpSession admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new MockHttpSession();
+        admin.setAttribute(SessionHelper.SESSION_USER_ID, 1L);
+        admin.setAttribute(SessionHelper.SESSION_ROLE, Role.ADMIN.name());
+    }
+
+    @Test
+    void seededTariffKeepsTheOriginalRates() {
+        CompiledTariff tariff = tariffService.forDate(LocalDate.of(2025, 1, 1));
+
+        assertThat(tariff.amount(100)).isEqualTo(350.0);
+        assertThat(tariff.amount(300)).isEqualTo(1350.0);
+        assertThat(tariff.amount(301)).isEqualTo(1357.0);
+        assertThat(tariffService.forDate(LocalDate.of(1970, 1, 1)).version()).isEqualTo(tariff.version());
+    }
+
+    @Test
+    void publishedVersionAppliesFromItsEffectiveDate() {
+        LocalDate from = LocalDate.now().plusYears(10);
+        long previous = tariffService.forDate(from).version();
+
+        publish(from, Arrays.asList(50L, null), List.of(400L, 900L));
+
+        CompiledTariff published = tariffService.forDate(from);
+        assertThat(published.version()).isGreaterThan(previous);
+        assertThat(published.amount(60)).isEqualTo(290.0);
+        assertThat(tariffService.forDate(from.plusYears(1)).version()).isEqualTo(published.version());
+        assertThat(tariffService.forDate(from.minusDays(1)).version()).isEqualTo(previous);
+    }
+
+    @Test
+    void publishedVersionIsSwappedInOnCommit() throws Exception {
+        LocalDate from = LocalDate.now().plusYears(20);
+        CompiledTariff before = tariffService.forDate(from);
+        double oldAmount = before.amount(60);
+
+        // readers see the whole old version or the whole new one, never a failure in between
+        AtomicBoolean stop = new AtomicBoolean();
+        CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+            while (!stop.get()) {
+                CompiledTariff t = tariffService.forDate(from);
+                assertThat(t.amount(60)).isEqualTo(t.version() == before.version() ? oldAmount : 600.0);
+            }
+        });
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+                tariffService.publish(admin, from, Arrays.asList((Long) null), List.of(1000L));
+                assertThat(tariffService.forDate(from).version()).isEqualTo(before.version());
+            });
+            assertThat(tariffService.forDate(from).version()).isGreaterThan(before.version());
+        } finally {
+            stop.set(true);
+            reader.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void rejectsMalformedSlabs() {
+        LocalDate from = LocalDate.now().plusYears(30);
+
+        assertThatThrownBy(() -> publish(from, Arrays.asList(100L, 300L), List.of(350L, 500L)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("no upper bound");
+        assertThatThrownBy(() -> publish(from, Arrays.asList(300L, 100L, null), List.of(350L, 500L, 700L)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("ascending");
+        assertThatThrownBy(() -> publish(from, Arrays.asList(100L, null), List.of(350L, -1L)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("negative");
+        assertThatThrownBy(() -> publish(from, Arrays.asList((Long) null), List.of(CompiledTariff.MAX_RATE_PAISE + 1)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("at most");
+        assertThatThrownBy(() -> publish(LocalDate.now().minusDays(1), Arrays.asList((Long) null), List.of(350L)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("today or later");
+    }
+
+    private void publish(LocalDate from, List<Long> upToUnits, List<Long> ratePaise) {
+        tariffService.publish(admin, from, upToUnits, ratePaise);
+    }
+}